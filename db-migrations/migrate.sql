@@ -70,6 +70,17 @@ CREATE TABLE IF NOT EXISTS shoe_card (
 );
 
 
+-- === SHOE SUMMARY ===
+-- Remaining cards per card definition in a game's shoe, kept up to date by the same statements that
+-- change shoe_card so that the remaining-count endpoints never have to scan the shoe.
+CREATE TABLE IF NOT EXISTS shoe_summary (
+    game_id     UUID NOT NULL REFERENCES game(id) ON DELETE CASCADE,
+    card_def_id SMALLINT NOT NULL REFERENCES card_definition(id),
+    remaining   INTEGER NOT NULL CHECK (remaining >= 0),
+    CONSTRAINT pk_shoe_summary PRIMARY KEY (game_id, card_def_id)
+);
+
+
 -- === HANDS (DEALT CARDS) ===
 CREATE TABLE IF NOT EXISTS hand_card (
     player_id    UUID NOT NULL REFERENCES player(id) ON DELETE CASCADE,
@@ -82,6 +93,62 @@ CREATE TABLE IF NOT EXISTS hand_card (
 );
 
 
+-- === EVENT LOG ===
+-- Used instead of shoe_card / hand_card when deck.engine.store is EVENT_LOG. Every change to a game is appended
+-- as one row, card ids are packed 16 bytes each into payload. Rows are never updated or deleted with the game alive.
+CREATE TABLE IF NOT EXISTS game_event (
+    game_id      UUID NOT NULL REFERENCES game(id) ON DELETE CASCADE,
+    seq          BIGINT NOT NULL,
+    kind         SMALLINT NOT NULL,
+    player_id    UUID,
+    payload      BYTEA NOT NULL,
+    recorded_at  TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT pk_game_event PRIMARY KEY (game_id, seq)
+);
+
+-- Latest shoe order and hands of a game up to and including event seq, so loading only replays the tail.
+CREATE TABLE IF NOT EXISTS game_snapshot (
+    game_id      UUID PRIMARY KEY REFERENCES game(id) ON DELETE CASCADE,
+    seq          BIGINT NOT NULL,
+    shoe         BYTEA NOT NULL,
+    hands        BYTEA NOT NULL,
+    taken_at     TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+
+-- === PACKED SHOE ===
+-- Used instead of shoe_card when deck.shoe.storage is PACKED. shoe_card_ids lists every card that was ever put in
+-- the game's shoe, 16 bytes each, so a card's ordinal is its position in it. shoe holds the shoe as 2-byte big-endian
+-- ordinals, top first, and shoe_cursor is how many of them have already been dealt. EXTERNAL storage keeps both
+-- uncompressed so a deal can read just the slice it needs.
+ALTER TABLE game ADD COLUMN IF NOT EXISTS shoe_card_ids BYTEA NOT NULL DEFAULT ''::bytea;
+ALTER TABLE game ADD COLUMN IF NOT EXISTS shoe BYTEA NOT NULL DEFAULT ''::bytea;
+ALTER TABLE game ADD COLUMN IF NOT EXISTS shoe_cursor INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE game ALTER COLUMN shoe_card_ids SET STORAGE EXTERNAL;
+ALTER TABLE game ALTER COLUMN shoe SET STORAGE EXTERNAL;
+
+-- Which of shoe_card or the packed columns currently holds the shoes. Only one is written at a time, the server
+-- rebuilds the other one at startup when deck.shoe.storage changed (see ShoeStorageSwitch). A cursor past 0 can only
+-- come from packed deals, so databases that already ran PACKED before this table existed start out as PACKED.
+CREATE TABLE IF NOT EXISTS shoe_storage_state (
+    id       BOOLEAN PRIMARY KEY DEFAULT true CHECK (id),
+    storage  TEXT NOT NULL CHECK (storage IN ('ROWS', 'PACKED'))
+);
+INSERT INTO shoe_storage_state (storage)
+SELECT CASE WHEN EXISTS (SELECT 1 FROM game WHERE shoe_cursor > 0) THEN 'PACKED' ELSE 'ROWS' END
+ON CONFLICT (id) DO NOTHING;
+
+-- How the game's shoe is shuffled, see ShuffleMode. SQL shuffles are derived from shuffle_seed and the number of
+-- shuffles so far, which makes them reproducible.
+ALTER TABLE game ADD COLUMN IF NOT EXISTS shuffle_mode TEXT NOT NULL DEFAULT 'JAVA' CHECK (shuffle_mode IN ('JAVA', 'SQL'));
+ALTER TABLE game ADD COLUMN IF NOT EXISTS shuffle_seed BIGINT NOT NULL
+    DEFAULT CAST(CAST('x' || substr(md5(CAST(gen_random_uuid() AS text)), 1, 16) AS bit(64)) AS BIGINT);
+ALTER TABLE game ADD COLUMN IF NOT EXISTS shuffle_count INTEGER NOT NULL DEFAULT 0;
+
+-- Bumped by every change to the game, its shoe, its players or their hands. Read endpoints use it as their ETag.
+ALTER TABLE game ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+
 -- INDICES
 CREATE INDEX IF NOT EXISTS ix_shoe_game_order ON shoe_card (game_id, order_key);
 CREATE INDEX IF NOT EXISTS ix_deck_card_deck ON deck_card (deck_id);
@@ -90,4 +157,17 @@ CREATE INDEX IF NOT EXISTS ix_shoe_game_card ON shoe_card (game_id, card_id);
 CREATE INDEX IF NOT EXISTS ix_hand_player ON hand_card (player_id);
 CREATE INDEX IF NOT EXISTS ix_hand_card ON hand_card (card_id);
 CREATE INDEX IF NOT EXISTS ix_player_game ON player (game_id);
-CREATE INDEX IF NOT EXISTS ix_player_user ON player (user_id);
\ No newline at end of file
+CREATE INDEX IF NOT EXISTS ix_player_user ON player (user_id);
+-- Game listing: keyset order, and the "has cards remaining" filter without touching exhausted summary rows
+CREATE INDEX IF NOT EXISTS ix_game_created ON game (created_at, id);
+CREATE INDEX IF NOT EXISTS ix_shoe_summary_remaining ON shoe_summary (game_id) WHERE remaining > 0;
+
+
+-- BACKFILL
+-- Summaries for shoes that existed before shoe_summary did.
+INSERT INTO shoe_summary (game_id, card_def_id, remaining)
+SELECT s.game_id, d.card_def_id, COUNT(*)
+FROM shoe_card s
+JOIN deck_card d ON d.id = s.card_id
+GROUP BY s.game_id, d.card_def_id
+ON CONFLICT (game_id, card_def_id) DO NOTHING;
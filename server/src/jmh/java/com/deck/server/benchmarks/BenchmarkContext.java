@@ -0,0 +1,127 @@
+package com.deck.server.benchmarks;
+
+import com.deck.server.ServerApplication;
+import com.deck.server.config.ShuffleMode;
+import com.deck.server.exceptions.CardsExceptionBase;
+import com.deck.server.repositories.UserRepository;
+import com.deck.server.services.GameService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A non-web application context against a local Postgres, plus helpers to set up and tear down tables.
+ */
+final class BenchmarkContext implements AutoCloseable
+{
+    private final ConfigurableApplicationContext context;
+    private final StatementCountingDataSource[] counter = new StatementCountingDataSource[1];
+
+    final GameService service;
+    final UserRepository users;
+    final JdbcClient db;
+
+    BenchmarkContext(String... extraProperties)
+    {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=" + System.getProperty("jmh.datasource.url", "jdbc:postgresql://localhost:5432/cards"),
+                "spring.datasource.username=" + System.getProperty("jmh.datasource.username", "postgres"),
+                "spring.datasource.password=" + System.getProperty("jmh.datasource.password", "postgres"),
+                "logging.level.root=WARN"));
+        properties.addAll(List.of(extraProperties));
+
+        context = new SpringApplicationBuilder(ServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor()
+                {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName)
+                    {
+                        if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource))
+                        {
+                            counter[0] = new StatementCountingDataSource(dataSource);
+                            return counter[0];
+                        }
+                        return bean;
+                    }
+                }))
+                .run();
+
+        service = context.getBean(GameService.class);
+        users = context.getBean(UserRepository.class);
+        db = context.getBean(JdbcClient.class);
+    }
+
+    long statementCount()
+    {
+        return counter[0] == null ? 0 : counter[0].statementCount();
+    }
+
+    /**
+     * A game with a shoe of {@code deckCount} fresh decks and {@code playerCount} seated players.
+     */
+    Table createTable(int deckCount, int playerCount)
+    {
+        return createTable(deckCount, playerCount, null);
+    }
+
+    /**
+     * Same as {@link #createTable(int, int)}, shuffled the given way instead of the configured default.
+     */
+    Table createTable(int deckCount, int playerCount, ShuffleMode shuffleMode)
+    {
+        try
+        {
+            UUID gameId = service.createGame(shuffleMode);
+            List<UUID> deckIds = service.createDecks("benchmark", deckCount);
+            for (UUID deckId : deckIds)
+                service.addDeckToGame(gameId, deckId);
+
+            List<UUID> userIds = new ArrayList<>();
+            List<UUID> playerIds = new ArrayList<>();
+            for (int i = 0; i < playerCount; i++)
+            {
+                UUID userId = users.createUser("bench-" + UUID.randomUUID(), UUID.randomUUID());
+                userIds.add(userId);
+                playerIds.add(service.addPlayerToGame(gameId, userId));
+            }
+            return new Table(gameId, deckIds, userIds, playerIds);
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    void dropTable(Table table)
+    {
+        try
+        {
+            service.deleteGame(table.gameId());
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+        for (UUID deckId : table.deckIds())
+            db.sql("DELETE FROM deck WHERE id = :id").param("id", deckId).update();
+        for (UUID userId : table.userIds())
+            users.deleteUser(userId);
+    }
+
+    @Override
+    public void close()
+    {
+        context.close();
+    }
+
+    record Table(UUID gameId, List<UUID> deckIds, List<UUID> userIds, List<UUID> playerIds) { }
+}
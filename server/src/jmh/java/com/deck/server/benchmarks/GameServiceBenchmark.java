@@ -0,0 +1,171 @@
+package com.deck.server.benchmarks;
+
+import com.deck.server.dto.CardCountDto;
+import com.deck.server.dto.PlayerDto;
+import com.deck.server.dto.SuitCountDto;
+import com.deck.server.exceptions.CardsExceptionBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@code GameService} hot paths against a real Postgres, for several shoe sizes and table sizes.
+ * Next to the timings, {@link Counters} reports how many JDBC statements each benchmark issued, so a change in
+ * round trips shows up in the results even when the local database hides it in the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark
+{
+    @State(Scope.Benchmark)
+    public static class TableState
+    {
+        @Param({ "1", "6", "8" })
+        public int decks;
+
+        @Param({ "2", "8" })
+        public int players;
+
+        BenchmarkContext context;
+        BenchmarkContext.Table table;
+        List<UUID> spareDecks;
+
+        private int nextPlayer;
+        private int cardsLeft;
+        private int nextSpareDeck;
+
+        @Setup(Level.Trial)
+        public void start() throws CardsExceptionBase
+        {
+            context = new BenchmarkContext();
+            table = context.createTable(decks, players);
+            spareDecks = context.service.createDecks("benchmark-spare", 8);
+            cardsLeft = decks * 52;
+
+            // Give the read benchmarks hands to aggregate
+            for (int i = 0; i < decks * 26; i++)
+                context.service.dealCardsToPlayer(table.gameId(), nextPlayer(), 1);
+            cardsLeft -= decks * 26;
+        }
+
+        @TearDown(Level.Trial)
+        public void stop()
+        {
+            context.dropTable(table);
+            for (UUID deckId : spareDecks)
+                context.db.sql("DELETE FROM deck WHERE id = :id").param("id", deckId).update();
+            context.close();
+        }
+
+        UUID nextPlayer()
+        {
+            UUID playerId = table.playerIds().get(nextPlayer);
+            nextPlayer = (nextPlayer + 1) % players;
+            return playerId;
+        }
+
+        /**
+         * Replaces the table with a fresh one once its shoe is empty, so every deal benchmark measures a real deal,
+         * or once all spare decks are in it, so the shoe does not grow without bound over an iteration.
+         * Runs outside the measured call: rebuilding a table costs far more than the calls being timed.
+         */
+        @Setup(Level.Invocation)
+        public void ensureTableUsable()
+        {
+            if (cardsLeft > 0 && nextSpareDeck < spareDecks.size())
+                return;
+            context.dropTable(table);
+            table = context.createTable(decks, players);
+            cardsLeft = decks * 52;
+            nextSpareDeck = 0;
+        }
+
+        UUID nextSpareDeck()
+        {
+            return spareDecks.get(nextSpareDeck++);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters
+    {
+        public long statements;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            statements = 0;
+            calls = 0;
+        }
+
+        /**
+         * Records one call that started when the statement count was {@code before}.
+         */
+        void record(TableState state, long before)
+        {
+            calls++;
+            statements += state.context.statementCount() - before;
+        }
+    }
+
+    @Benchmark
+    public void dealCardsToPlayer(TableState state, Counters counters) throws CardsExceptionBase
+    {
+        long before = state.context.statementCount();
+        state.context.service.dealCardsToPlayer(state.table.gameId(), state.nextPlayer(), 1);
+        state.cardsLeft--;
+        counters.record(state, before);
+    }
+
+    @Benchmark
+    public void shuffleShoeForGame(TableState state, Counters counters) throws CardsExceptionBase
+    {
+        long before = state.context.statementCount();
+        state.context.service.shuffleShoeForGame(state.table.gameId());
+        counters.record(state, before);
+    }
+
+    @Benchmark
+    public void addDeckToGame(TableState state, Counters counters) throws CardsExceptionBase
+    {
+        UUID deckId = state.nextSpareDeck();
+        long before = state.context.statementCount();
+        state.context.service.addDeckToGame(state.table.gameId(), deckId);
+        state.cardsLeft += 52;
+        counters.record(state, before);
+    }
+
+    @Benchmark
+    public List<PlayerDto> getPlayersInGame(TableState state, Counters counters) throws CardsExceptionBase
+    {
+        long before = state.context.statementCount();
+        List<PlayerDto> players = state.context.service.getPlayersInGame(state.table.gameId());
+        counters.record(state, before);
+        return players;
+    }
+
+    @Benchmark
+    public List<SuitCountDto> getRemainingCardsBySuit(TableState state, Counters counters) throws CardsExceptionBase
+    {
+        long before = state.context.statementCount();
+        List<SuitCountDto> counts = state.context.service.getRemainingCardsBySuit(state.table.gameId());
+        counters.record(state, before);
+        return counts;
+    }
+
+    @Benchmark
+    public List<CardCountDto> getRemainingCardsBySuitAndRank(TableState state, Counters counters) throws CardsExceptionBase
+    {
+        long before = state.context.statementCount();
+        List<CardCountDto> counts = state.context.service.getRemainingCardsBySuitAndRank(state.table.gameId());
+        counters.record(state, before);
+        return counts;
+    }
+}
@@ -0,0 +1,52 @@
+package com.deck.server.benchmarks;
+
+import com.deck.server.config.ShuffleMode;
+import com.deck.server.exceptions.CardsExceptionBase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shuffle latency of the Java-side Fisher–Yates path against the seeded in-database shuffle, for both shoe storages.
+ * The Java path moves every card id to the server and back, the SQL path only sends the game id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShuffleBenchmark
+{
+    @Param({ "1", "6", "8" })
+    public int decks;
+
+    @Param({ "JAVA", "SQL" })
+    public ShuffleMode shuffleMode;
+
+    @Param({ "ROWS", "PACKED" })
+    public String storage;
+
+    private BenchmarkContext context;
+    private BenchmarkContext.Table table;
+
+    @Setup(Level.Trial)
+    public void start()
+    {
+        context = new BenchmarkContext("deck.shoe.storage=" + storage);
+        table = context.createTable(decks, 2, shuffleMode);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop()
+    {
+        context.dropTable(table);
+        context.close();
+    }
+
+    @Benchmark
+    public void shuffleShoeForGame() throws CardsExceptionBase
+    {
+        context.service.shuffleShoeForGame(table.gameId());
+    }
+}
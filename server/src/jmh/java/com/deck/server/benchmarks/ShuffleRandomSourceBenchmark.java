@@ -0,0 +1,123 @@
+package com.deck.server.benchmarks;
+
+import com.deck.server.shuffle.GeneratorRandomSource;
+import com.deck.server.shuffle.PooledRandomSource;
+import com.deck.server.shuffle.SecureRandomSource;
+import com.deck.server.shuffle.ShuffleRandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Shuffle throughput of each {@link ShuffleRandomSource} at one, six and eight decks, without a database.
+ * {@code RANDOM} is the previous behaviour, a fresh {@link Random} per shuffle. The {@code contended} benchmark runs
+ * the same shuffle from four threads against one shared source.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShuffleRandomSourceBenchmark
+{
+    @Param({ "52", "312", "416" })
+    public int cards;
+
+    @Param({ "RANDOM", "L64X128_MIX", "SPLITTABLE", "SECURE", "POOLED_SECURE" })
+    public String generator;
+
+    /**
+     * The previous behaviour: one {@link Random} per shuffle, created along with the source.
+     */
+    static final class RandomPerShuffleSource implements ShuffleRandomSource
+    {
+        private final Random random = new Random();
+
+        @Override
+        public long nextLong()
+        {
+            return random.nextLong();
+        }
+
+        @Override
+        public int nextInt(int bound)
+        {
+            return random.nextInt(bound);
+        }
+    }
+
+    /** The source for the next shuffle: the shared one, or a new one per shuffle for {@code RANDOM}. */
+    private Supplier<ShuffleRandomSource> sources;
+    private ShuffleRandomSource source;
+    private List<Integer> shoe;
+
+    @Setup(Level.Trial)
+    public void start()
+    {
+        if (generator.equals("RANDOM"))
+        {
+            sources = RandomPerShuffleSource::new;
+        }
+        else
+        {
+            source = createShared();
+            sources = () -> source;
+        }
+
+        shoe = new ArrayList<>(cards);
+        for (int i = 0; i < cards; i++)
+            shoe.add(i);
+    }
+
+    private ShuffleRandomSource createShared()
+    {
+        return switch (generator)
+        {
+            case "L64X128_MIX" -> new GeneratorRandomSource("L64X128MixRandom");
+            case "SPLITTABLE" -> new GeneratorRandomSource("SplittableRandom");
+            case "SECURE" -> new SecureRandomSource(new SecureRandom());
+            case "POOLED_SECURE" -> new PooledRandomSource(new SecureRandom(), Runtime.getRuntime().availableProcessors(), 4096);
+            default -> throw new IllegalArgumentException(generator);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception
+    {
+        if (source instanceof AutoCloseable closeable)
+            closeable.close();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadShoe
+    {
+        List<Integer> shoe;
+
+        @Setup(Level.Trial)
+        public void start(ShuffleRandomSourceBenchmark benchmark)
+        {
+            shoe = new ArrayList<>(benchmark.shoe);
+        }
+    }
+
+    @Benchmark
+    public List<Integer> shuffle(ThreadShoe state)
+    {
+        sources.get().shuffle(state.shoe);
+        return state.shoe;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Integer> contended(ThreadShoe state)
+    {
+        sources.get().shuffle(state.shoe);
+        return state.shoe;
+    }
+}
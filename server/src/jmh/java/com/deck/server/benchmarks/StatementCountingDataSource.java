@@ -0,0 +1,64 @@
+package com.deck.server.benchmarks;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts every statement prepared through the wrapped data source, which is one round trip per statement
+ * for the way the repositories use JDBC.
+ */
+final class StatementCountingDataSource extends DelegatingDataSource
+{
+    private static final Set<String> STATEMENT_METHODS = Set.of("prepareStatement", "prepareCall", "createStatement");
+
+    private final LongAdder statements = new LongAdder();
+
+    StatementCountingDataSource(DataSource target)
+    {
+        super(target);
+    }
+
+    long statementCount()
+    {
+        return statements.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException
+    {
+        return counting(super.getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection)
+    {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{ Connection.class },
+                (proxy, method, args) ->
+                {
+                    if (STATEMENT_METHODS.contains(method.getName()))
+                        statements.increment();
+                    try
+                    {
+                        return method.invoke(connection, args);
+                    }
+                    catch (InvocationTargetException ex)
+                    {
+                        throw ex.getCause();
+                    }
+                });
+    }
+}
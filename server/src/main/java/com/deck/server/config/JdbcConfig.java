@@ -1,7 +1,11 @@
 package com.deck.server.config;
 
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.simple.JdbcClient;
@@ -9,22 +13,49 @@ import org.springframework.jdbc.core.simple.JdbcClient;
 import javax.sql.DataSource;
 
 @Configuration
+@EnableConfigurationProperties(JdbcPoolProperties.class)
 public class JdbcConfig
 {
+    static final String POOL_NAME = "deck";
+
+    /**
+     * With platform threads, Tomcat's thread pool already caps how many requests can wait on a connection. With
+     * virtual threads every request gets its own thread, so the connection pool becomes the only limit on
+     * concurrent database work and is sized separately.
+     * <p>
+     * Pool metrics (hikaricp.connections.active, idle, pending, acquire, timeout...) are published to the
+     * Micrometer registry, tagged {@code pool=deck}.
+     */
     @Bean
     public DataSource dataSource(
             @Value("${spring.datasource.url}") String url,
             @Value("${spring.datasource.username}") String user,
-            @Value("${spring.datasource.password}") String pass)
+            @Value("${spring.datasource.password}") String pass,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            JdbcPoolProperties pool,
+            ObjectProvider<MeterRegistry> meterRegistry)
     {
         HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName(POOL_NAME);
         ds.setJdbcUrl(url);
         ds.setUsername(user);
         ds.setPassword(pass);
         ds.setDriverClassName("org.postgresql.Driver");
-        // Optional tuning:
-        ds.setMaximumPoolSize(10);
-        ds.setMinimumIdle(1);
+
+        ds.setMaximumPoolSize(virtualThreads ? pool.virtualThreadPoolSize() : pool.poolSize());
+        ds.setMinimumIdle(pool.minimumIdle());
+        ds.setConnectionTimeout(pool.connectionTimeout().toMillis());
+        ds.setIdleTimeout(pool.idleTimeout().toMillis());
+        ds.setMaxLifetime(pool.maxLifetime().toMillis());
+        ds.setKeepaliveTime(pool.keepaliveTime().toMillis());
+        ds.setLeakDetectionThreshold(pool.leakDetectionThreshold().toMillis());
+
+        ds.addDataSourceProperty("prepareThreshold", pool.prepareThreshold());
+        ds.addDataSourceProperty("reWriteBatchedInserts", pool.reWriteBatchedInserts());
+        ds.addDataSourceProperty("preparedStatementCacheQueries", pool.preparedStatementCacheQueries());
+        ds.addDataSourceProperty("preparedStatementCacheSizeMiB", pool.preparedStatementCacheSizeMib());
+
+        meterRegistry.ifAvailable(registry -> ds.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
         return ds;
     }
 
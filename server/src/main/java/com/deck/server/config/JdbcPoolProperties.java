@@ -0,0 +1,39 @@
+package com.deck.server.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and driver settings, bound from {@code deck.jdbc}.
+ *
+ * @param poolSize                      maximum connections when requests run on platform threads
+ * @param virtualThreadPoolSize         maximum connections when {@code spring.threads.virtual.enabled} is set
+ * @param minimumIdle                   idle connections Hikari keeps open
+ * @param connectionTimeout             how long a caller waits for a connection before failing
+ * @param idleTimeout                   how long a connection above {@code minimumIdle} may sit idle
+ * @param maxLifetime                   connections are retired after this long
+ * @param keepaliveTime                 how often idle connections are pinged, 0 to never
+ * @param leakDetectionThreshold        logs connections held longer than this, 0 to never
+ * @param prepareThreshold              executions of a statement before pgjdbc switches it to a server-side prepare
+ * @param reWriteBatchedInserts         lets pgjdbc rewrite batched inserts into multi-row inserts
+ * @param preparedStatementCacheQueries statements pgjdbc caches per connection
+ * @param preparedStatementCacheSizeMib memory pgjdbc may use for that cache, per connection
+ */
+@ConfigurationProperties("deck.jdbc")
+public record JdbcPoolProperties(
+        @DefaultValue("10") int poolSize,
+        @DefaultValue("40") int virtualThreadPoolSize,
+        @DefaultValue("1") int minimumIdle,
+        @DefaultValue("30s") Duration connectionTimeout,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue("30m") Duration maxLifetime,
+        @DefaultValue("0s") Duration keepaliveTime,
+        @DefaultValue("0s") Duration leakDetectionThreshold,
+        @DefaultValue("5") int prepareThreshold,
+        @DefaultValue("true") boolean reWriteBatchedInserts,
+        @DefaultValue("256") int preparedStatementCacheQueries,
+        @DefaultValue("5") int preparedStatementCacheSizeMib)
+{
+}
@@ -0,0 +1,25 @@
+package com.deck.server.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+@ConditionalOnProperty(name = "deck.events.kafka.enabled", havingValue = "true")
+public class KafkaEventsConfig
+{
+    /**
+     * The game events topic, created at startup when missing. Events are keyed by game id, so the partition count
+     * bounds how many consumers can read it in parallel.
+     */
+    @Bean
+    public NewTopic gameEventsTopic(
+            @Value("${deck.events.kafka.topic:game-events}") String topic,
+            @Value("${deck.events.kafka.partitions:6}") int partitions)
+    {
+        return TopicBuilder.name(topic).partitions(partitions).build();
+    }
+}
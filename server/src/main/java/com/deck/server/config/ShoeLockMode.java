@@ -0,0 +1,27 @@
+package com.deck.server.config;
+
+/**
+ * How concurrent writers to the same shoe are kept apart.
+ * Configured with {@code deck.shoe.lock-mode}.
+ */
+public enum ShoeLockMode
+{
+    /**
+     * No extra locking of the shoe. Two concurrent deals may race for the same top cards, in which case the loser
+     * deals fewer cards than requested. Deals to the same player still lock that player so hand order stays unique.
+     */
+    NONE,
+
+    /**
+     * Every shoe mutation first takes a transaction-scoped advisory lock keyed on the game id.
+     * Deals on the same game run one after the other, deals on different games run in parallel.
+     */
+    ADVISORY_LOCK,
+
+    /**
+     * Deals lock the rows they take with FOR UPDATE SKIP LOCKED, so concurrent deals on the same game
+     * take disjoint cards without waiting on each other. Cards are no longer guaranteed to leave the shoe
+     * strictly in order across concurrent deals. Deals to the same player lock that player and take turns.
+     */
+    SKIP_LOCKED
+}
@@ -0,0 +1,16 @@
+package com.deck.server.config;
+
+/**
+ * How the undealt cards of a game are stored, selected with {@code deck.shoe.storage}.
+ */
+public enum ShoeStorage
+{
+    /** One shoe_card row per undealt card, ordered by order_key. */
+    ROWS,
+
+    /**
+     * The whole shoe packed into bytea columns of the game row, with a cursor past the dealt cards.
+     * Deals only move the cursor and a shuffle rewrites a single value.
+     */
+    PACKED
+}
@@ -0,0 +1,18 @@
+package com.deck.server.config;
+
+/**
+ * Where a game's shoe is shuffled. Chosen when the game is created, {@code deck.shoe.shuffle-mode} is the default.
+ */
+public enum ShuffleMode
+{
+    /** The shoe is read into the server, shuffled with Fisher–Yates and written back. */
+    JAVA,
+
+    /**
+     * The shoe is reordered by a single statement inside Postgres, no card crosses the wire. Shuffle {@code n} of a
+     * game orders its cards by {@code hashtextextended(card_id::text, shuffle_seed # n)}, then by card id, so any
+     * shuffle can be reproduced from the seed stored on the game and the cards that were in the shoe.
+     * Only applies to the DATABASE engine mode, the MEMORY engine always shuffles in memory.
+     */
+    SQL
+}
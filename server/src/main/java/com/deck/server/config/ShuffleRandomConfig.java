@@ -0,0 +1,31 @@
+package com.deck.server.config;
+
+import com.deck.server.shuffle.GeneratorRandomSource;
+import com.deck.server.shuffle.PooledRandomSource;
+import com.deck.server.shuffle.SecureRandomSource;
+import com.deck.server.shuffle.ShuffleRandomSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.security.SecureRandom;
+
+@Configuration
+public class ShuffleRandomConfig
+{
+    @Bean
+    public ShuffleRandomSource shuffleRandomSource(
+            @Value("${deck.shuffle.rng:POOLED_SECURE}") ShuffleRng rng,
+            @Value("${deck.shuffle.pool.stripes:0}") int stripes,
+            @Value("${deck.shuffle.pool.words-per-buffer:4096}") int wordsPerBuffer)
+    {
+        return switch (rng)
+        {
+            case L64X128_MIX -> new GeneratorRandomSource("L64X128MixRandom");
+            case SPLITTABLE -> new GeneratorRandomSource("SplittableRandom");
+            case SECURE -> new SecureRandomSource(new SecureRandom());
+            case POOLED_SECURE -> new PooledRandomSource(new SecureRandom(),
+                    stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors(), wordsPerBuffer);
+        };
+    }
+}
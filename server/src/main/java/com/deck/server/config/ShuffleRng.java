@@ -0,0 +1,19 @@
+package com.deck.server.config;
+
+/**
+ * Generator behind Java-side shuffles, selected with {@code deck.shuffle.rng}.
+ */
+public enum ShuffleRng
+{
+    /** {@code L64X128MixRandom}, one per thread. Fast and well distributed, but predictable from its output. */
+    L64X128_MIX,
+
+    /** {@code SplittableRandom}, one per thread. */
+    SPLITTABLE,
+
+    /** A shared {@link java.security.SecureRandom}, called on the request path. */
+    SECURE,
+
+    /** {@link java.security.SecureRandom} output generated ahead of time and refilled in the background. */
+    POOLED_SECURE
+}
@@ -0,0 +1,17 @@
+package com.deck.server.controllers;
+
+/**
+ * Weak ETags derived from a game's state version. The same version may be rendered differently by each endpoint,
+ * hence weak.
+ */
+final class ETags
+{
+    private ETags()
+    {
+    }
+
+    static String of(long version)
+    {
+        return "W/\"" + version + "\"";
+    }
+}
@@ -1,42 +1,57 @@
 package com.deck.server.controllers;
 
+import com.deck.server.config.ShuffleMode;
 import com.deck.server.dto.CardCountDto;
+import com.deck.server.dto.CardDto;
 import com.deck.server.dto.GameDto;
+import com.deck.server.dto.GamePageDto;
+import com.deck.server.dto.GameSnapshotDto;
 import com.deck.server.dto.PlayerDto;
 import com.deck.server.dto.SuitCountDto;
+import com.deck.server.events.GameEventStream;
 import com.deck.server.exceptions.CardsExceptionBase;
 import com.deck.server.services.GameService;
 import com.deck.server.services.PlayerService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/games")
 public class GameController
 {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final GameService gameService;
     private final PlayerService playerService;
+    private final GameEventStream eventStream;
 
-    public GameController(GameService gameService, PlayerService playerService)
+    public GameController(GameService gameService, PlayerService playerService, GameEventStream eventStream)
     {
         this.gameService = gameService;
         this.playerService = playerService;
+        this.eventStream = eventStream;
     }
 
     /**
-     * Create a game
+     * Create a game, optionally choosing how its shoe is shuffled (JAVA or SQL)
      */
     @PostMapping
-    public ResponseEntity<UUID> createGame()
+    public ResponseEntity<UUID> createGame(@RequestParam(required = false) ShuffleMode shuffle)
     {
         try
         {
-            UUID gameId = gameService.createGame();
+            UUID gameId = gameService.createGame(shuffle);
             return ResponseEntity.ok(gameId);
         }
         catch (CardsExceptionBase ex)
@@ -71,15 +86,50 @@ public class GameController
     }
 
     /**
-     * List all games.
+     * Stream the changes made to a game as server-sent events: DeckAdded, CardsDealt, ShoeShuffled,
+     * PlayerJoined, PlayerLeft and GameDeleted. Clients load the state once, then apply the events.
+     */
+    @GetMapping(path = "/{gameId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable UUID gameId)
+    {
+        try
+        {
+            gameService.ensureGameExists(gameId);
+            return eventStream.subscribe(gameId);
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new ResponseStatusException(ex.code, ex.getMessage());
+        }
+        catch (Exception ex)
+        {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        }
+    }
+
+    /**
+     * List games, newest first, one page at a time. The cursor for the next page is returned in the
+     * X-Next-Cursor header and passed back as {@code after}; the header is absent on the last page.
+     * {@code hasPlayers} and {@code hasCardsRemaining} narrow the listing down.
      */
     @GetMapping
-    public ResponseEntity<List<GameDto>> listGames()
+    public ResponseEntity<List<GameDto>> listGames(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean hasPlayers,
+            @RequestParam(defaultValue = "false") boolean hasCardsRemaining)
     {
         try
         {
-            var games = gameService.getAllGames();
-            return ResponseEntity.ok(games);
+            GamePageDto page = gameService.getGames(after, limit, hasPlayers, hasCardsRemaining);
+            var response = ResponseEntity.ok();
+            if (page.nextCursor() != null)
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            return response.body(page.games());
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new ResponseStatusException(ex.code, ex.getMessage());
         }
         catch (Exception ex)
         {
@@ -104,6 +154,27 @@ public class GameController
         }
     }
 
+    /**
+     * Creates several new decks at once.
+     */
+    @PostMapping("/new-decks")
+    public ResponseEntity<List<UUID>> createDecks(@RequestParam int count)
+    {
+        try
+        {
+            var deckIds = gameService.createDecks("deck name placeholder", count);
+            return ResponseEntity.ok(deckIds);
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new ResponseStatusException(ex.code, ex.getMessage());
+        }
+        catch (Exception ex)
+        {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        }
+    }
+
     /**
      * Add a deck to the game deck (shoe).
      */
@@ -173,14 +244,105 @@ public class GameController
     }
 
     /**
-     * Get the list of players in a game along with the total added value of all the cards each player holds
+     * Deal a round: {@code count} cards to every player in the game, or, with a body mapping player ids to counts,
+     * each listed player their own count. Cards go out one per seat per pass, in join order.
+     */
+    @PostMapping("/{gameId}/deal-round")
+    public ResponseEntity<Void> dealRound(
+            @PathVariable UUID gameId,
+            @RequestParam(defaultValue = "1") int count,
+            @RequestBody(required = false) Map<UUID, Integer> counts)
+    {
+        try
+        {
+            if (counts == null || counts.isEmpty())
+                gameService.dealRound(gameId, count);
+            else
+                gameService.dealRound(gameId, counts);
+            return ResponseEntity.ok().build();
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new ResponseStatusException(ex.code, ex.getMessage());
+        }
+        catch (Exception ex)
+        {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        }
+    }
+
+    /**
+     * Get players with totals, every hand, both remaining-count views and the game version in one response,
+     * read together so they are consistent. Answers 304 like the reads below, but the ETag of a full response is
+     * taken from the version the snapshot was read at.
+     */
+    @GetMapping("/{gameId}/snapshot")
+    public ResponseEntity<GameSnapshotDto> getSnapshot(
+            @PathVariable UUID gameId,
+            WebRequest request,
+            HttpServletResponse response)
+    {
+        try
+        {
+            if (request.checkNotModified(ETags.of(gameService.getGameVersion(gameId))))
+                return null;
+
+            // Replaces the ETag of the check above, the version may have moved on since
+            GameSnapshotDto snapshot = gameService.getSnapshot(gameId);
+            response.setHeader(HttpHeaders.ETAG, ETags.of(snapshot.version()));
+            return ResponseEntity.ok(snapshot);
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new ResponseStatusException(ex.code, ex.getMessage());
+        }
+        catch (Exception ex)
+        {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        }
+    }
+
+    /**
+     * Get the hands of every player in a game at once, keyed by player id in join order, cards in hand order.
+     * Like every read below, answers 304 from the game version alone when If-None-Match still matches.
+     */
+    @GetMapping("/{gameId}/hands")
+    public ResponseEntity<Map<UUID, List<CardDto>>> getHands(@PathVariable UUID gameId, WebRequest request)
+    {
+        try
+        {
+            if (request.checkNotModified(ETags.of(gameService.getGameVersion(gameId))))
+                return null;
+
+            return ResponseEntity.ok(gameService.getHandsInGame(gameId));
+        }
+        catch (CardsExceptionBase ex)
+        {
+            throw new ResponseStatusException(ex.code, ex.getMessage());
+        }
+        catch (Exception ex)
+        {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        }
+    }
+
+    /**
+     * Get the list of players in a game along with the total added value of all the cards each player holds.
+     * Sorted by total value, highest first. With {@code limit}, only the top players are returned.
      */
     @GetMapping("/{gameId}/players")
-    public ResponseEntity<List<PlayerDto>> getPlayers(@PathVariable UUID gameId)
+    public ResponseEntity<List<PlayerDto>> getPlayers(
+            @PathVariable UUID gameId,
+            @RequestParam(required = false) Integer limit,
+            WebRequest request)
     {
         try
         {
-            var players = gameService.getPlayersInGame(gameId);
+            long version = gameService.getGameVersion(gameId);
+            if (request.checkNotModified(ETags.of(version)))
+                return null;
+
+            var players = gameService.getPlayersInGame(gameId, limit, version);
             return ResponseEntity.ok(players);
         }
         catch (CardsExceptionBase ex)
@@ -198,11 +360,15 @@ public class GameController
      * Example: 5 hearts, 3 spades, etc.
      */
     @GetMapping("/{gameId}/remaining-by-suit")
-    public ResponseEntity<List<SuitCountDto>> getRemainingCardsBySuit(@PathVariable UUID gameId)
+    public ResponseEntity<List<SuitCountDto>> getRemainingCardsBySuit(@PathVariable UUID gameId, WebRequest request)
     {
         try
         {
-            var response = gameService.getRemainingCardsBySuit(gameId);
+            long version = gameService.getGameVersion(gameId);
+            if (request.checkNotModified(ETags.of(version)))
+                return null;
+
+            var response = gameService.getRemainingCardsBySuit(gameId, version);
             return ResponseEntity.ok(response);
         }
         catch (CardsExceptionBase ex)
@@ -219,11 +385,15 @@ public class GameController
      * Get the count of each card (suit and value) remaining in the game deck sorted by suit
      */
     @GetMapping("/{gameId}/remaining-by-suit-rank")
-    public ResponseEntity<List<CardCountDto>> getRemainingCardsBySuitAndRank(@PathVariable UUID gameId)
+    public ResponseEntity<List<CardCountDto>> getRemainingCardsBySuitAndRank(@PathVariable UUID gameId, WebRequest request)
     {
         try
         {
-            var result = gameService.getRemainingCardsBySuitAndRank(gameId);
+            long version = gameService.getGameVersion(gameId);
+            if (request.checkNotModified(ETags.of(version)))
+                return null;
+
+            var result = gameService.getRemainingCardsBySuitAndRank(gameId, version);
             return ResponseEntity.ok(result);
         }
         catch (CardsExceptionBase ex)
@@ -7,6 +7,7 @@ import com.deck.server.services.PlayerService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
@@ -67,14 +68,18 @@ public class PlayerController
     }
 
     /**
-     * Get the list of cards for a player
+     * Get the list of cards for a player, or 304 when their game has not changed since If-None-Match
      */
     @GetMapping("/{playerId}/hand")
-    public ResponseEntity<List<CardDto>> getListOfCardsForPlayer(@PathVariable UUID playerId)
+    public ResponseEntity<List<CardDto>> getListOfCardsForPlayer(@PathVariable UUID playerId, WebRequest request)
     {
         try
         {
-            var cards = playerService.getCardsForPlayer(playerId);
+            long version = playerService.getHandVersion(playerId);
+            if (request.checkNotModified(ETags.of(version)))
+                return null;
+
+            var cards = playerService.getCardsForPlayer(playerId, version);
             return ResponseEntity.ok(cards);
         }
         catch (CardsExceptionBase ex)
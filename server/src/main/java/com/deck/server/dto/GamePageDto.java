@@ -0,0 +1,8 @@
+package com.deck.server.dto;
+
+import java.util.List;
+
+/**
+ * One page of games, newest first. {@code nextCursor} is null on the last page.
+ */
+public record GamePageDto(List<GameDto> games, String nextCursor) { }
@@ -0,0 +1,16 @@
+package com.deck.server.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything needed to render one game, read together. {@code version} is the game version the rest was read at,
+ * the same one the per-game endpoints use as their ETag.
+ */
+public record GameSnapshotDto(
+        long version,
+        List<PlayerDto> players,
+        Map<UUID, List<CardDto>> hands,
+        List<SuitCountDto> remainingBySuit,
+        List<CardCountDto> remainingBySuitAndRank) { }
@@ -0,0 +1,150 @@
+package com.deck.server.engine;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binary layout of game_event payloads and game_snapshot columns. Card and player ids are packed as two
+ * big-endian longs, counts and hand orders as ints.
+ */
+final class EventLogCodec
+{
+    static final short SHOE_APPENDED = 1;
+    static final short CARDS_DEALT = 2;
+    static final short CARDS_REMOVED = 3;
+    static final short SHOE_REORDERED = 4;
+    static final short CARDS_HANDED_OUT = 5;
+
+    private EventLogCodec()
+    {
+    }
+
+    static short kindOf(PendingWrite write)
+    {
+        if (write instanceof PendingWrite.ShoeAppended)
+            return SHOE_APPENDED;
+        if (write instanceof PendingWrite.CardsDealt)
+            return CARDS_DEALT;
+        if (write instanceof PendingWrite.CardsRemoved)
+            return CARDS_REMOVED;
+        if (write instanceof PendingWrite.CardsHandedOut)
+            return CARDS_HANDED_OUT;
+        return SHOE_REORDERED;
+    }
+
+    static byte[] payloadOf(PendingWrite write)
+    {
+        if (write instanceof PendingWrite.CardsDealt dealt)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + dealt.cardIds().size() * 16);
+            buffer.putInt(dealt.firstHandOrder());
+            putIds(buffer, dealt.cardIds());
+            return buffer.array();
+        }
+        if (write instanceof PendingWrite.CardsHandedOut handedOut)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + handedOut.cardIds().size() * 16);
+            buffer.putInt(handedOut.firstHandOrder());
+            putIds(buffer, handedOut.cardIds());
+            return buffer.array();
+        }
+        if (write instanceof PendingWrite.ShoeAppended appended)
+            return ids(appended.cardIds());
+        if (write instanceof PendingWrite.CardsRemoved removed)
+            return ids(removed.cardIds());
+        return ids(((PendingWrite.ShoeReordered) write).cardIds());
+    }
+
+    static PendingWrite decode(short kind, UUID playerId, byte[] payload)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        return switch (kind)
+        {
+            case SHOE_APPENDED -> new PendingWrite.ShoeAppended(getIds(buffer, buffer.remaining() / 16));
+            case CARDS_REMOVED -> new PendingWrite.CardsRemoved(getIds(buffer, buffer.remaining() / 16));
+            case SHOE_REORDERED -> new PendingWrite.ShoeReordered(getIds(buffer, buffer.remaining() / 16));
+            case CARDS_DEALT ->
+            {
+                int firstHandOrder = buffer.getInt();
+                yield new PendingWrite.CardsDealt(playerId, getIds(buffer, buffer.remaining() / 16), firstHandOrder);
+            }
+            case CARDS_HANDED_OUT ->
+            {
+                int firstHandOrder = buffer.getInt();
+                yield new PendingWrite.CardsHandedOut(playerId, getIds(buffer, buffer.remaining() / 16), firstHandOrder);
+            }
+            default -> throw new IllegalArgumentException("Unknown game event kind: " + kind);
+        };
+    }
+
+    static byte[] ids(List<UUID> ids)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.size() * 16);
+        putIds(buffer, ids);
+        return buffer.array();
+    }
+
+    static List<UUID> ids(byte[] packed)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        return getIds(buffer, buffer.remaining() / 16);
+    }
+
+    /** Each player as id, card count, then card ids, in map order. */
+    static byte[] hands(Map<UUID, List<UUID>> hands)
+    {
+        int size = 0;
+        for (List<UUID> hand : hands.values())
+            size += 16 + Integer.BYTES + hand.size() * 16;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (Map.Entry<UUID, List<UUID>> entry : hands.entrySet())
+        {
+            putId(buffer, entry.getKey());
+            buffer.putInt(entry.getValue().size());
+            putIds(buffer, entry.getValue());
+        }
+        return buffer.array();
+    }
+
+    static LinkedHashMap<UUID, List<UUID>> hands(byte[] packed)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        LinkedHashMap<UUID, List<UUID>> hands = new LinkedHashMap<>();
+        while (buffer.hasRemaining())
+        {
+            UUID playerId = getId(buffer);
+            hands.put(playerId, getIds(buffer, buffer.getInt()));
+        }
+        return hands;
+    }
+
+    private static void putIds(ByteBuffer buffer, List<UUID> ids)
+    {
+        for (UUID id : ids)
+            putId(buffer, id);
+    }
+
+    private static void putId(ByteBuffer buffer, UUID id)
+    {
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+    }
+
+    private static List<UUID> getIds(ByteBuffer buffer, int count)
+    {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            ids.add(getId(buffer));
+        return ids;
+    }
+
+    private static UUID getId(ByteBuffer buffer)
+    {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,291 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.DeckCardEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Persists in-memory games as an append-only log in game_event, plus a snapshot in game_snapshot every
+ * {@code deck.engine.snapshot-every} events. A game is rebuilt as its snapshot followed by the events after it.
+ * shoe_card, hand_card and shoe_summary are not written in this mode, the player table still is. Only the in-memory
+ * engine reads games back from the log, so startup fails when this store is combined with any other engine mode.
+ * <p>
+ * Unlike shoe_card and hand_card, game_event has no foreign key to deck_card: the card ids of appended cards are
+ * checked and key-share locked on write, and every card id of a game must still resolve when it is loaded.
+ */
+@Component
+@ConditionalOnProperty(name = "deck.engine.store", havingValue = "EVENT_LOG")
+public class EventLogGameStateStore implements GameStateStore
+{
+    /** Upper bound on ids per IN list when resolving deck cards. */
+    private static final int LOOKUP_CHUNK = 1000;
+
+    private final JdbcClient db;
+    private final int snapshotEvery;
+
+    public EventLogGameStateStore(
+            JdbcClient db,
+            @Value("${deck.engine.snapshot-every:200}") int snapshotEvery,
+            @Value("${deck.engine.mode:DATABASE}") String engineMode)
+    {
+        if (!"MEMORY".equals(engineMode))
+            throw new IllegalStateException("deck.engine.store=EVENT_LOG requires deck.engine.mode=MEMORY, but it is " + engineMode);
+
+        this.db = db;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+    }
+
+    /**
+     * Shoe and hands of a game as card ids, after replaying every event up to {@code seq}.
+     */
+    record Replayed(long seq, List<UUID> shoe, LinkedHashMap<UUID, List<UUID>> hands) { }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<GameSnapshot> load(UUID gameId)
+    {
+        Optional<Long> version = db.sql("SELECT version FROM game WHERE id = :id")
+                .param("id", gameId)
+                .query(Long.class)
+                .optional();
+        if (version.isEmpty())
+            return Optional.empty();
+
+        List<UUID> playerIds = db.sql("SELECT id FROM player WHERE game_id = :gameId ORDER BY added_at, id")
+                .param("gameId", gameId)
+                .query(UUID.class)
+                .list();
+
+        Replayed replayed = replay(gameId, Long.MAX_VALUE);
+
+        // Hands of players who left went with them, like the ON DELETE CASCADE on hand_card
+        Set<UUID> ids = new HashSet<>(replayed.shoe());
+        for (UUID playerId : playerIds)
+            ids.addAll(replayed.hands().getOrDefault(playerId, List.of()));
+        Map<UUID, DeckCardEntity> cards = resolve(ids);
+        if (cards.size() != ids.size())
+        {
+            throw new IllegalStateException("Event log of game " + gameId + " references " + (ids.size() - cards.size())
+                    + " card(s) missing from deck_card");
+        }
+
+        List<DeckCardEntity> shoe = replayed.shoe().stream().map(cards::get).toList();
+        Map<UUID, List<DeckCardEntity>> hands = new LinkedHashMap<>();
+        for (UUID playerId : playerIds)
+        {
+            hands.put(playerId, replayed.hands().getOrDefault(playerId, List.of())
+                    .stream()
+                    .map(cards::get)
+                    .toList());
+        }
+        return Optional.of(new GameSnapshot(shoe, hands, version.get()));
+    }
+
+    /**
+     * Rebuilds a game from its snapshot and the events after it, up to and including event {@code untilSeq}.
+     * A snapshot newer than {@code untilSeq} is ignored, so any past state can be replayed.
+     */
+    @Transactional(readOnly = true)
+    public Replayed replay(UUID gameId, long untilSeq)
+    {
+        long[] seq = { 0 };
+        List<UUID> shoe = new ArrayList<>();
+        LinkedHashMap<UUID, List<UUID>> hands = new LinkedHashMap<>();
+
+        db.sql("SELECT seq, shoe, hands FROM game_snapshot WHERE game_id = :gameId AND seq <= :untilSeq")
+                .param("gameId", gameId)
+                .param("untilSeq", untilSeq)
+                .query(rs ->
+                {
+                    seq[0] = rs.getLong("seq");
+                    shoe.addAll(EventLogCodec.ids(rs.getBytes("shoe")));
+                    hands.putAll(EventLogCodec.hands(rs.getBytes("hands")));
+                });
+
+        db.sql("""
+            SELECT seq, kind, player_id, payload
+            FROM game_event
+            WHERE game_id = :gameId AND seq > :fromSeq AND seq <= :untilSeq
+            ORDER BY seq
+            """)
+                .param("gameId", gameId)
+                .param("fromSeq", seq[0])
+                .param("untilSeq", untilSeq)
+                .query(rs ->
+                {
+                    seq[0] = rs.getLong("seq");
+                    apply(EventLogCodec.decode(rs.getShort("kind"), (UUID) rs.getObject("player_id"), rs.getBytes("payload")), shoe, hands);
+                });
+
+        return new Replayed(seq[0], shoe, hands);
+    }
+
+    @Override
+    public Optional<UUID> findGameOfPlayer(UUID playerId)
+    {
+        return db.sql("SELECT game_id FROM player WHERE id = :id")
+                .param("id", playerId)
+                .query(UUID.class)
+                .optional();
+    }
+
+    @Override
+    public List<DeckCardEntity> findDeckCards(List<UUID> cardIds)
+    {
+        return new ArrayList<>(resolve(cardIds).values());
+    }
+
+    @Override
+    @Transactional
+    public void write(UUID gameId, List<PendingWrite> writes)
+    {
+        // The version is not an event, it goes to the game row like with the relational store
+        List<PendingWrite> events = new ArrayList<>(writes.size());
+        long version = -1;
+        Set<UUID> newCards = new HashSet<>();
+        for (PendingWrite write : writes)
+        {
+            if (write instanceof PendingWrite.VersionBumped bumped)
+            {
+                version = bumped.version();
+                continue;
+            }
+            if (write instanceof PendingWrite.ShoeAppended appended)
+                newCards.addAll(appended.cardIds());
+            else if (write instanceof PendingWrite.CardsHandedOut handedOut)
+                newCards.addAll(handedOut.cardIds());
+            events.add(write);
+        }
+        if (version >= 0)
+            RelationalGameStateStore.writeVersion(db, gameId, version);
+        if (events.isEmpty())
+            return;
+        lockDeckCards(gameId, newCards);
+
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++)
+        {
+            PendingWrite write = events.get(i);
+            UUID playerId = null;
+            if (write instanceof PendingWrite.CardsDealt dealt)
+                playerId = dealt.playerId();
+            else if (write instanceof PendingWrite.CardsHandedOut handedOut)
+                playerId = handedOut.playerId();
+            rows.add(new Object[]{ i + 1, EventLogCodec.kindOf(write), playerId, EventLogCodec.payloadOf(write) });
+        }
+
+        // The whole batch is appended after the current last event in one statement
+        List<Long> appended = db.sql("""
+            INSERT INTO game_event (game_id, seq, kind, player_id, payload)
+            SELECT :gameId, last.seq + v.n, CAST(v.kind AS SMALLINT), CAST(v.player_id AS UUID), v.payload
+            FROM (VALUES :rows) AS v(n, kind, player_id, payload)
+            CROSS JOIN (
+                SELECT COALESCE(MAX(seq), 0) AS seq
+                FROM game_event
+                WHERE game_id = :gameId
+            ) last
+            RETURNING seq
+            """)
+                .param("gameId", gameId)
+                .param("rows", rows)
+                .query(Long.class)
+                .list();
+
+        long first = Collections.min(appended);
+        long last = Collections.max(appended);
+        if ((first - 1) / snapshotEvery != last / snapshotEvery)
+            snapshot(gameId);
+    }
+
+    /**
+     * Stores the current state of a game as its snapshot, replacing the previous one.
+     */
+    private void snapshot(UUID gameId)
+    {
+        Replayed replayed = replay(gameId, Long.MAX_VALUE);
+        db.sql("""
+            INSERT INTO game_snapshot (game_id, seq, shoe, hands)
+            VALUES (:gameId, :seq, :shoe, :hands)
+            ON CONFLICT (game_id)
+            DO UPDATE SET seq = EXCLUDED.seq, shoe = EXCLUDED.shoe, hands = EXCLUDED.hands, taken_at = now()
+            """)
+                .param("gameId", gameId)
+                .param("seq", replayed.seq())
+                .param("shoe", EventLogCodec.ids(replayed.shoe()))
+                .param("hands", EventLogCodec.hands(replayed.hands()))
+                .update();
+    }
+
+    private static void apply(PendingWrite event, List<UUID> shoe, Map<UUID, List<UUID>> hands)
+    {
+        if (event instanceof PendingWrite.ShoeAppended appended)
+        {
+            shoe.addAll(appended.cardIds());
+        }
+        else if (event instanceof PendingWrite.CardsRemoved removed)
+        {
+            shoe.removeAll(new HashSet<>(removed.cardIds()));
+        }
+        else if (event instanceof PendingWrite.ShoeReordered reordered)
+        {
+            shoe.clear();
+            shoe.addAll(reordered.cardIds());
+        }
+        else if (event instanceof PendingWrite.CardsDealt dealt)
+        {
+            shoe.removeAll(new HashSet<>(dealt.cardIds()));
+            hands.computeIfAbsent(dealt.playerId(), id -> new ArrayList<>()).addAll(dealt.cardIds());
+        }
+        else if (event instanceof PendingWrite.CardsHandedOut handedOut)
+        {
+            hands.computeIfAbsent(handedOut.playerId(), id -> new ArrayList<>()).addAll(handedOut.cardIds());
+        }
+    }
+
+    /**
+     * Stands in for the missing foreign key: fails when a card is not in deck_card, and keeps the cards from being
+     * deleted until the events referencing them are committed.
+     */
+    private void lockDeckCards(UUID gameId, Set<UUID> cardIds)
+    {
+        List<UUID> ids = new ArrayList<>(cardIds);
+        int found = 0;
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK)
+        {
+            found += db.sql("SELECT id FROM deck_card WHERE id IN (:ids) FOR KEY SHARE")
+                    .param("ids", ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size())))
+                    .query(UUID.class)
+                    .list()
+                    .size();
+        }
+        if (found != ids.size())
+        {
+            throw new IllegalStateException("Cannot append " + (ids.size() - found) + " card(s) missing from deck_card"
+                    + " to game " + gameId);
+        }
+    }
+
+    private Map<UUID, DeckCardEntity> resolve(Collection<UUID> cardIds)
+    {
+        List<UUID> ids = new ArrayList<>(cardIds);
+        Map<UUID, DeckCardEntity> cards = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK)
+        {
+            db.sql("SELECT id, deck_id, card_def_id FROM deck_card WHERE id IN (:ids)")
+                    .param("ids", ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size())))
+                    .query((rs, rowNum) -> new DeckCardEntity(
+                            (UUID) rs.getObject("id"),
+                            (UUID) rs.getObject("deck_id"),
+                            ((Number) rs.getObject("card_def_id")).shortValue()
+                    ))
+                    .list()
+                    .forEach(card -> cards.put(card.id(), card));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,421 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.entity.ShoeSummary;
+import com.deck.server.repositories.CardRegistry;
+import com.deck.server.shuffle.ShuffleRandomSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Keeps every active game in memory and serves deals, shuffles and reads from there.
+ * Changes are written behind to the {@link GameStateStore} in batches, one transaction per game per flush.
+ * A game that is not in memory is loaded from the store on next access. A game whose write failed stays in memory
+ * with its writes queued, and the flush is retried with exponential backoff until the store takes them.
+ * <p>
+ * This assumes a single server node owns the games it serves.
+ */
+@Component
+@ConditionalOnProperty(name = "deck.engine.mode", havingValue = "MEMORY")
+public class GameEngine
+{
+    private static final Logger log = LoggerFactory.getLogger(GameEngine.class);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(30);
+
+    private final GameStateStore store;
+    private final CardRegistry cards;
+    private final Duration flushInterval;
+    private final Duration idleTimeout;
+    private final ShuffleRandomSource random;
+
+    private final ConcurrentHashMap<UUID, GameState> games = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, UUID> playerGames = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    public GameEngine(
+            GameStateStore store,
+            CardRegistry cards,
+            @Value("${deck.engine.flush-interval:50ms}") Duration flushInterval,
+            @Value("${deck.engine.idle-timeout:30m}") Duration idleTimeout,
+            ShuffleRandomSource random)
+    {
+        this.store = store;
+        this.cards = cards;
+        this.flushInterval = flushInterval;
+        this.idleTimeout = idleTimeout;
+        this.random = random;
+    }
+
+    @PostConstruct
+    void start()
+    {
+        flusher = Executors.newSingleThreadScheduledExecutor(r ->
+        {
+            Thread t = new Thread(r, "game-engine-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAndEvictIdle,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException
+    {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+    }
+
+    public boolean gameExists(UUID gameId)
+    {
+        return acquire(gameId).isPresent();
+    }
+
+    public Optional<Long> getVersion(UUID gameId)
+    {
+        return withState(gameId, GameState::getVersion);
+    }
+
+    public Optional<Long> getVersionOfPlayerGame(UUID playerId)
+    {
+        return withPlayerState(playerId, GameState::getVersion);
+    }
+
+    /**
+     * Bumps the state version in memory, it is written behind with the changes it covers.
+     * Returns false when the game does not exist.
+     */
+    public boolean bumpVersion(UUID gameId)
+    {
+        return withState(gameId, state ->
+        {
+            state.bumpVersion();
+            return true;
+        }).isPresent();
+    }
+
+    public Optional<List<DeckCardEntity>> getShoe(UUID gameId)
+    {
+        return withState(gameId, GameState::getShoe);
+    }
+
+    public Optional<ShoeSummary> getShoeSummary(UUID gameId)
+    {
+        return withState(gameId, state ->
+        {
+            int[] remaining = state.getRemainingByDefinition();
+            ShoeSummary summary = new ShoeSummary();
+            for (short id = 0; id < remaining.length; id++)
+            {
+                if (remaining[id] == 0)
+                    continue;
+                CardDefinition def = definition(id);
+                summary.add(def.suit(), def.rank(), remaining[id]);
+            }
+            return summary;
+        });
+    }
+
+    public List<DeckCardEntity> getHand(UUID playerId)
+    {
+        return withPlayerState(playerId, state -> state.getHand(playerId)).orElse(List.of());
+    }
+
+    /**
+     * Every hand of the game, taken together so they are consistent with each other.
+     */
+    public Optional<Map<UUID, List<DeckCardEntity>>> getHands(UUID gameId)
+    {
+        return withState(gameId, GameState::getHands);
+    }
+
+    /**
+     * Returns the cards actually appended, or empty when the game does not exist.
+     */
+    public Optional<List<DeckCardEntity>> pushback(UUID gameId, List<DeckCardEntity> cards)
+    {
+        return withState(gameId, state -> state.pushback(cards));
+    }
+
+    /**
+     * Looks up deck cards by id, keeping the order of the given ids. Unknown ids are skipped.
+     */
+    public List<DeckCardEntity> resolveDeckCards(List<UUID> cardIds)
+    {
+        Map<UUID, DeckCardEntity> byId = new HashMap<>();
+        for (DeckCardEntity card : store.findDeckCards(cardIds))
+            byId.put(card.id(), card);
+
+        List<DeckCardEntity> ordered = new ArrayList<>(cardIds.size());
+        for (UUID id : cardIds)
+        {
+            DeckCardEntity card = byId.get(id);
+            if (card != null)
+                ordered.add(card);
+        }
+        return ordered;
+    }
+
+    public List<DeckCardEntity> pop(UUID gameId, int count)
+    {
+        return withState(gameId, state -> state.pop(count)).orElse(List.of());
+    }
+
+    public List<DeckCardEntity> deal(UUID gameId, UUID playerId, int count)
+    {
+        return withState(gameId, state -> state.deal(playerId, count)).orElse(List.of());
+    }
+
+    /**
+     * Deals round-robin to the given seats, see {@link com.deck.server.repositories.IGameRepository#dealRound}.
+     */
+    public Map<UUID, List<DeckCardEntity>> dealRound(UUID gameId, Map<UUID, Integer> countsBySeat)
+    {
+        return withState(gameId, state -> state.dealRound(countsBySeat)).orElseGet(Map::of);
+    }
+
+    /**
+     * Returns false when the game does not exist.
+     */
+    public boolean shuffle(UUID gameId)
+    {
+        return withState(gameId, state ->
+        {
+            state.shuffle(random);
+            return true;
+        }).isPresent();
+    }
+
+    /**
+     * Registers a player that was just inserted, if the game is currently in memory.
+     */
+    public void playerJoined(UUID gameId, UUID playerId)
+    {
+        GameState state = games.get(gameId);
+        if (state == null)
+            return;
+
+        try
+        {
+            state.addPlayer(playerId);
+            playerGames.put(playerId, gameId);
+        }
+        catch (GameState.EvictedException ignored)
+        {
+            // will be picked up on reload
+        }
+    }
+
+    /**
+     * Writes the player's game now, so nothing is still queued for them when their rows are changed directly.
+     * Throws when the game has changes that cannot be written yet, the direct change must not go ahead of them.
+     */
+    public void flushGameOfPlayer(UUID playerId)
+    {
+        UUID gameId = playerGames.get(playerId);
+        GameState state = gameId == null ? null : games.get(gameId);
+        if (state != null && !flush(state))
+            throw new IllegalStateException("Game " + gameId + " has changes that could not be written yet");
+    }
+
+    /**
+     * Adds cards that do not come from the shoe to a player's hand, written behind like a deal.
+     * Returns false when the player is not in any game.
+     */
+    public boolean handOut(UUID playerId, List<DeckCardEntity> cards)
+    {
+        return withPlayerState(playerId, state ->
+        {
+            state.handOut(playerId, cards);
+            return true;
+        }).isPresent();
+    }
+
+    public void playerLeft(UUID playerId)
+    {
+        UUID gameId = playerGames.remove(playerId);
+        GameState state = gameId == null ? null : games.get(gameId);
+        if (state == null)
+            return;
+
+        try
+        {
+            state.removePlayer(playerId);
+        }
+        catch (GameState.EvictedException ignored)
+        {
+            // already gone
+        }
+    }
+
+    /**
+     * Drops a game and everything still queued for it, used when the game itself is deleted.
+     */
+    public void discard(UUID gameId)
+    {
+        GameState state = games.remove(gameId);
+        if (state != null)
+            forget(state);
+    }
+
+    public CardDefinition definition(short cardDefId)
+    {
+        return cards.get(cardDefId);
+    }
+
+    /**
+     * Writes every pending change of every game now.
+     */
+    public void flushAll()
+    {
+        for (GameState state : games.values())
+            flush(state);
+    }
+
+    void flushAndEvictIdle()
+    {
+        long now = System.nanoTime();
+        for (GameState state : games.values())
+        {
+            state.flushLock.lock();
+            try
+            {
+                if (state.failedFlushes > 0 && now - state.retryAtNanos < 0)
+                    continue;
+                if (!flushLocked(state))
+                    continue;
+
+                // Still under flushLock, so writes drained by a concurrent flush that has not stored them yet
+                // cannot make the state look clean
+                if (now - state.lastAccessNanos > idleTimeout.toNanos() && state.evictIfClean())
+                {
+                    games.remove(state.gameId, state);
+                    forget(state);
+                }
+            }
+            catch (RuntimeException ex)
+            {
+                log.error("Game engine flush failed for game {}", state.gameId, ex);
+            }
+            finally
+            {
+                state.flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns false when the writes could not be stored, they are then still queued.
+     */
+    private boolean flush(GameState state)
+    {
+        state.flushLock.lock();
+        try
+        {
+            return flushLocked(state);
+        }
+        finally
+        {
+            state.flushLock.unlock();
+        }
+    }
+
+    private boolean flushLocked(GameState state)
+    {
+        List<PendingWrite> writes = state.drainPending();
+        if (writes.isEmpty())
+            return true;
+
+        try
+        {
+            store.write(state.gameId, writes);
+            state.failedFlushes = 0;
+            return true;
+        }
+        catch (RuntimeException ex)
+        {
+            // These changes were already answered and streamed to clients, so they are kept and retried rather than
+            // dropped. A game with pending writes is never evicted, it stays served from memory in the meantime.
+            state.requeue(writes);
+            state.failedFlushes++;
+            long backoff = Math.min(flushInterval.toNanos() << Math.min(state.failedFlushes, 16), MAX_RETRY_BACKOFF.toNanos());
+            state.retryAtNanos = System.nanoTime() + backoff;
+            log.error("Could not write game {} behind ({} failed attempt(s)), retrying in {} ms",
+                    state.gameId, state.failedFlushes, backoff / 1_000_000, ex);
+            return false;
+        }
+    }
+
+    private void forget(GameState state)
+    {
+        state.evict();
+        playerGames.values().removeIf(gameId -> gameId.equals(state.gameId));
+    }
+
+    private <T> Optional<T> withState(UUID gameId, Function<GameState, T> action)
+    {
+        while (true)
+        {
+            Optional<GameState> state = acquire(gameId);
+            if (state.isEmpty())
+                return Optional.empty();
+
+            try
+            {
+                return Optional.ofNullable(action.apply(state.get()));
+            }
+            catch (GameState.EvictedException ignored)
+            {
+                // Raced with an eviction, load it again
+            }
+        }
+    }
+
+    private <T> Optional<T> withPlayerState(UUID playerId, Function<GameState, T> action)
+    {
+        UUID gameId = playerGames.get(playerId);
+        if (gameId == null)
+        {
+            Optional<UUID> found = store.findGameOfPlayer(playerId);
+            if (found.isEmpty())
+                return Optional.empty();
+            gameId = found.get();
+        }
+        return withState(gameId, action);
+    }
+
+    private Optional<GameState> acquire(UUID gameId)
+    {
+        GameState state = games.get(gameId);
+        if (state != null)
+            return Optional.of(state);
+
+        Optional<GameSnapshot> snapshot = store.load(gameId);
+        if (snapshot.isEmpty())
+            return Optional.empty();
+
+        GameState loaded = new GameState(gameId, snapshot.get());
+        GameState existing = games.putIfAbsent(gameId, loaded);
+        if (existing != null)
+            return Optional.of(existing);
+
+        for (UUID playerId : snapshot.get().hands().keySet())
+            playerGames.put(playerId, gameId);
+        return Optional.of(loaded);
+    }
+}
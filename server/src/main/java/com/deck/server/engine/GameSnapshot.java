@@ -0,0 +1,44 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.DeckCardEntity;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The persisted state of one game, as read by a {@link GameStateStore}.
+ *
+ * @param shoe           undealt cards, top of the shoe first
+ * @param hands          every player in the game, in join order, with their cards in hand order
+ * @param lastHandOrders highest hand order used so far by each player, the next card dealt to them follows it.
+ *                       Players missing from it have not been dealt anything.
+ * @param version        the game's state version
+ */
+public record GameSnapshot(
+        List<DeckCardEntity> shoe,
+        Map<UUID, List<DeckCardEntity>> hands,
+        Map<UUID, Integer> lastHandOrders,
+        long version)
+{
+    /**
+     * For stores whose hand orders are gap-free positions, where the last one is the size of the hand.
+     */
+    public GameSnapshot(List<DeckCardEntity> shoe, Map<UUID, List<DeckCardEntity>> hands, long version)
+    {
+        this(shoe, hands, sizes(hands), version);
+    }
+
+    public int lastHandOrder(UUID playerId)
+    {
+        return lastHandOrders.getOrDefault(playerId, 0);
+    }
+
+    private static Map<UUID, Integer> sizes(Map<UUID, List<DeckCardEntity>> hands)
+    {
+        Map<UUID, Integer> sizes = new HashMap<>();
+        hands.forEach((playerId, cards) -> sizes.put(playerId, cards.size()));
+        return sizes;
+    }
+}
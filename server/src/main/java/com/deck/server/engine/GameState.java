@@ -0,0 +1,400 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.DeckCardEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Authoritative in-memory state of one active game.
+ * The shoe is a ring buffer so that dealing from the top and pushing to the bottom are both O(1).
+ * Every mutation records a {@link PendingWrite} under the same monitor, so writes are flushed in the order
+ * they were applied.
+ */
+final class GameState
+{
+    /** Thrown when an operation reaches a state that has been dropped from the engine, the caller reloads and retries. */
+    static final class EvictedException extends RuntimeException
+    {
+        EvictedException()
+        {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Hand
+    {
+        final List<DeckCardEntity> cards = new ArrayList<>();
+        int lastHandOrder;
+    }
+
+    final UUID gameId;
+    final ReentrantLock flushLock = new ReentrantLock();
+    volatile long lastAccessNanos = System.nanoTime();
+
+    /** Consecutive failed flushes and when the background flusher may try again, both guarded by flushLock. */
+    int failedFlushes;
+    long retryAtNanos;
+
+    private DeckCardEntity[] shoe;
+    private int head;
+    private int size;
+    private int[] remainingByDefinition = new int[64];
+    private final Map<UUID, Hand> hands = new LinkedHashMap<>();
+    private List<PendingWrite> pending = new ArrayList<>();
+    private long version;
+    private boolean evicted;
+
+    GameState(UUID gameId, GameSnapshot snapshot)
+    {
+        this.gameId = gameId;
+        this.shoe = new DeckCardEntity[capacityFor(snapshot.shoe().size())];
+        for (DeckCardEntity card : snapshot.shoe())
+        {
+            shoe[size++] = card;
+            count(card, 1);
+        }
+
+        snapshot.hands().forEach((playerId, cards) ->
+        {
+            Hand hand = new Hand();
+            hand.cards.addAll(cards);
+            hand.lastHandOrder = snapshot.lastHandOrder(playerId);
+            hands.put(playerId, hand);
+        });
+        this.version = snapshot.version();
+    }
+
+    synchronized long getVersion()
+    {
+        ensureLive();
+        return version;
+    }
+
+    /**
+     * Moves to the next state version. Bumps queued back to back are written as one.
+     */
+    synchronized void bumpVersion()
+    {
+        ensureLive();
+        version++;
+        int last = pending.size() - 1;
+        if (last >= 0 && pending.get(last) instanceof PendingWrite.VersionBumped)
+            pending.set(last, new PendingWrite.VersionBumped(version));
+        else
+            pending.add(new PendingWrite.VersionBumped(version));
+    }
+
+    synchronized List<DeckCardEntity> getShoe()
+    {
+        ensureLive();
+        List<DeckCardEntity> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            result.add(shoe[slot(i)]);
+        return result;
+    }
+
+    /**
+     * Remaining cards in the shoe indexed by card definition id.
+     */
+    synchronized int[] getRemainingByDefinition()
+    {
+        ensureLive();
+        return remainingByDefinition.clone();
+    }
+
+    synchronized List<DeckCardEntity> getHand(UUID playerId)
+    {
+        ensureLive();
+        Hand hand = hands.get(playerId);
+        return hand == null ? List.of() : List.copyOf(hand.cards);
+    }
+
+    /**
+     * Copies of every hand, in join order.
+     */
+    synchronized Map<UUID, List<DeckCardEntity>> getHands()
+    {
+        ensureLive();
+        Map<UUID, List<DeckCardEntity>> copy = new LinkedHashMap<>();
+        hands.forEach((playerId, hand) -> copy.put(playerId, List.copyOf(hand.cards)));
+        return copy;
+    }
+
+    synchronized List<UUID> getPlayerIds()
+    {
+        ensureLive();
+        return List.copyOf(hands.keySet());
+    }
+
+    /**
+     * Returns the cards actually appended, those already in the shoe are skipped.
+     */
+    synchronized List<DeckCardEntity> pushback(List<DeckCardEntity> cards)
+    {
+        ensureLive();
+        ensureCapacity(size + cards.size());
+
+        List<DeckCardEntity> appended = new ArrayList<>(cards.size());
+        for (DeckCardEntity card : cards)
+        {
+            if (containsInShoe(card.id()))
+                continue;
+            shoe[slot(size++)] = card;
+            count(card, 1);
+            appended.add(card);
+        }
+
+        if (!appended.isEmpty())
+            pending.add(new PendingWrite.ShoeAppended(ids(appended)));
+        return appended;
+    }
+
+    synchronized List<DeckCardEntity> pop(int count)
+    {
+        ensureLive();
+        List<DeckCardEntity> popped = takeTop(count);
+        if (!popped.isEmpty())
+            pending.add(new PendingWrite.CardsRemoved(ids(popped)));
+        return popped;
+    }
+
+    synchronized List<DeckCardEntity> deal(UUID playerId, int count)
+    {
+        ensureLive();
+        Hand hand = hands.get(playerId);
+        if (hand == null)
+            throw new IllegalArgumentException("Player " + playerId + " is not in game " + gameId);
+
+        List<DeckCardEntity> dealt = takeTop(count);
+        if (dealt.isEmpty())
+            return dealt;
+
+        int firstHandOrder = hand.lastHandOrder + 1;
+        hand.cards.addAll(dealt);
+        hand.lastHandOrder += dealt.size();
+        pending.add(new PendingWrite.CardsDealt(playerId, ids(dealt), firstHandOrder));
+        return dealt;
+    }
+
+    /**
+     * Deals one card per seat per pass, in the iteration order of {@code countsBySeat}, until every count is met or
+     * the shoe is empty. Records one {@link PendingWrite.CardsDealt} per player who received cards.
+     */
+    synchronized Map<UUID, List<DeckCardEntity>> dealRound(Map<UUID, Integer> countsBySeat)
+    {
+        ensureLive();
+        int passes = 0;
+        for (Map.Entry<UUID, Integer> seat : countsBySeat.entrySet())
+        {
+            if (!hands.containsKey(seat.getKey()))
+                throw new IllegalArgumentException("Player " + seat.getKey() + " is not in game " + gameId);
+            passes = Math.max(passes, seat.getValue());
+        }
+
+        Map<UUID, List<DeckCardEntity>> dealt = new LinkedHashMap<>();
+        countsBySeat.keySet().forEach(playerId -> dealt.put(playerId, new ArrayList<>()));
+        for (int pass = 0; pass < passes && size > 0; pass++)
+        {
+            for (Map.Entry<UUID, Integer> seat : countsBySeat.entrySet())
+            {
+                if (pass < seat.getValue() && size > 0)
+                    dealt.get(seat.getKey()).addAll(takeTop(1));
+            }
+        }
+
+        dealt.forEach((playerId, cards) ->
+        {
+            if (cards.isEmpty())
+                return;
+            Hand hand = hands.get(playerId);
+            int firstHandOrder = hand.lastHandOrder + 1;
+            hand.cards.addAll(cards);
+            hand.lastHandOrder += cards.size();
+            pending.add(new PendingWrite.CardsDealt(playerId, ids(cards), firstHandOrder));
+        });
+        return dealt;
+    }
+
+    /**
+     * Adds cards to a player's hand that do not come from the shoe, after the ones they already hold.
+     */
+    synchronized void handOut(UUID playerId, List<DeckCardEntity> cards)
+    {
+        ensureLive();
+        Hand hand = hands.get(playerId);
+        if (hand == null)
+            throw new IllegalArgumentException("Player " + playerId + " is not in game " + gameId);
+
+        int firstHandOrder = hand.lastHandOrder + 1;
+        hand.cards.addAll(cards);
+        hand.lastHandOrder += cards.size();
+        pending.add(new PendingWrite.CardsHandedOut(playerId, ids(cards), firstHandOrder));
+    }
+
+    synchronized void shuffle(RandomGenerator rng)
+    {
+        ensureLive();
+        if (size <= 1)
+            return;
+
+        // Fisher–Yates over the logical positions of the ring
+        for (int i = size - 1; i > 0; i--)
+        {
+            int j = rng.nextInt(i + 1);
+            int a = slot(i), b = slot(j);
+            DeckCardEntity tmp = shoe[a];
+            shoe[a] = shoe[b];
+            shoe[b] = tmp;
+        }
+
+        List<UUID> order = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            order.add(shoe[slot(i)].id());
+        pending.add(new PendingWrite.ShoeReordered(order));
+    }
+
+    synchronized void addPlayer(UUID playerId)
+    {
+        ensureLive();
+        hands.putIfAbsent(playerId, new Hand());
+    }
+
+    synchronized void removePlayer(UUID playerId)
+    {
+        ensureLive();
+        hands.remove(playerId);
+    }
+
+    synchronized boolean hasPlayer(UUID playerId)
+    {
+        ensureLive();
+        return hands.containsKey(playerId);
+    }
+
+    synchronized List<PendingWrite> drainPending()
+    {
+        if (pending.isEmpty())
+            return List.of();
+
+        List<PendingWrite> drained = pending;
+        pending = new ArrayList<>();
+        return drained;
+    }
+
+    /**
+     * Puts writes that could not be stored back in front of the ones queued since, so they are retried in order.
+     */
+    synchronized void requeue(List<PendingWrite> writes)
+    {
+        if (evicted)
+            return;
+
+        List<PendingWrite> merged = new ArrayList<>(writes.size() + pending.size());
+        merged.addAll(writes);
+        merged.addAll(pending);
+        pending = merged;
+    }
+
+    synchronized boolean hasPending()
+    {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Marks the state as dropped. Pending writes are discarded, the store stays the source of truth.
+     */
+    synchronized void evict()
+    {
+        evicted = true;
+        pending = Collections.emptyList();
+    }
+
+    /**
+     * Evicts the state only if it has nothing left to write.
+     */
+    synchronized boolean evictIfClean()
+    {
+        if (!pending.isEmpty())
+            return false;
+        evicted = true;
+        return true;
+    }
+
+    private void ensureLive()
+    {
+        if (evicted)
+            throw new EvictedException();
+        lastAccessNanos = System.nanoTime();
+    }
+
+    private List<DeckCardEntity> takeTop(int count)
+    {
+        int n = Math.min(count, size);
+        List<DeckCardEntity> taken = new ArrayList<>(n);
+        for (int i = 0; i < n; i++)
+        {
+            taken.add(shoe[head]);
+            count(shoe[head], -1);
+            shoe[head] = null;
+            head = (head + 1) & (shoe.length - 1);
+            size--;
+        }
+        return taken;
+    }
+
+    private void count(DeckCardEntity card, int delta)
+    {
+        int id = card.card_def_id();
+        if (id >= remainingByDefinition.length)
+            remainingByDefinition = Arrays.copyOf(remainingByDefinition, Math.max(id + 1, remainingByDefinition.length * 2));
+        remainingByDefinition[id] += delta;
+    }
+
+    private boolean containsInShoe(UUID cardId)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            if (shoe[slot(i)].id().equals(cardId))
+                return true;
+        }
+        return false;
+    }
+
+    private int slot(int index)
+    {
+        return (head + index) & (shoe.length - 1);
+    }
+
+    private void ensureCapacity(int required)
+    {
+        if (required <= shoe.length)
+            return;
+
+        DeckCardEntity[] grown = new DeckCardEntity[capacityFor(required)];
+        for (int i = 0; i < size; i++)
+            grown[i] = shoe[slot(i)];
+        shoe = grown;
+        head = 0;
+    }
+
+    private static int capacityFor(int required)
+    {
+        return Math.max(64, Integer.highestOneBit(Math.max(required, 1) - 1) << 1);
+    }
+
+    private static List<UUID> ids(List<DeckCardEntity> cards)
+    {
+        List<UUID> ids = new ArrayList<>(cards.size());
+        for (DeckCardEntity card : cards)
+            ids.add(card.id());
+        return ids;
+    }
+}
@@ -0,0 +1,18 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.DeckCardEntity;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Where the in-memory engine reads games from and writes their changes behind to.
+ */
+public interface GameStateStore
+{
+    Optional<GameSnapshot> load(UUID gameId);
+    Optional<UUID> findGameOfPlayer(UUID playerId);
+    List<DeckCardEntity> findDeckCards(List<UUID> cardIds);
+    void write(UUID gameId, List<PendingWrite> writes);
+}
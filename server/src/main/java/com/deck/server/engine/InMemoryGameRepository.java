@@ -0,0 +1,146 @@
+package com.deck.server.engine;
+
+import com.deck.server.config.ShuffleMode;
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.entity.GameEntity;
+import com.deck.server.entity.ShoeSummary;
+import com.deck.server.exceptions.FilterNotSupportedException;
+import com.deck.server.repositories.GameRepository;
+import com.deck.server.repositories.IGameRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves shoe operations from the {@link GameEngine}. Game rows themselves still go straight to Postgres.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "deck.engine.mode", havingValue = "MEMORY")
+public class InMemoryGameRepository implements IGameRepository
+{
+    private final GameRepository games;
+    private final GameEngine engine;
+    private final boolean eventLog;
+
+    public InMemoryGameRepository(
+            GameRepository games,
+            GameEngine engine,
+            @Value("${deck.engine.store:RELATIONAL}") String store)
+    {
+        this.games = games;
+        this.engine = engine;
+        this.eventLog = "EVENT_LOG".equals(store);
+    }
+
+    @Override
+    public UUID createGame()
+    {
+        return games.createGame();
+    }
+
+    @Override
+    public UUID createGame(ShuffleMode shuffleMode)
+    {
+        // Kept on the row for when the game is served from the database again, shuffles here stay in memory
+        return games.createGame(shuffleMode);
+    }
+
+    @Override
+    public boolean deleteGame(UUID gameId)
+    {
+        engine.discard(gameId);
+        return games.deleteGame(gameId);
+    }
+
+    @Override
+    public boolean doesGameExist(UUID gameId)
+    {
+        return engine.gameExists(gameId);
+    }
+
+    @Override
+    public Optional<Long> getVersion(UUID gameId)
+    {
+        return engine.getVersion(gameId);
+    }
+
+    @Override
+    public void bumpVersion(UUID gameId)
+    {
+        engine.bumpVersion(gameId);
+    }
+
+    @Override
+    public List<GameEntity> getPage(GameEntity after, int limit, boolean withPlayers, boolean withCardsRemaining)
+            throws FilterNotSupportedException
+    {
+        // The filter reads shoe_summary, which the relational store keeps up to date at every flush and the event
+        // log never writes
+        if (withCardsRemaining && eventLog)
+            throw new FilterNotSupportedException("hasCardsRemaining", "deck.engine.store=EVENT_LOG");
+        return games.getPage(after, limit, withPlayers, withCardsRemaining);
+    }
+
+    @Override
+    public List<CardDefinition> getShoeCards(UUID gameId)
+    {
+        return engine.getShoe(gameId).orElse(List.of())
+                .stream()
+                .map(card -> engine.definition(card.card_def_id()))
+                .toList();
+    }
+
+    @Override
+    public Optional<ShoeSummary> getShoeSummary(UUID gameId)
+    {
+        return engine.getShoeSummary(gameId);
+    }
+
+    @Override
+    public List<DeckCardEntity> popCardsFromShoe(UUID gameId, int count)
+    {
+        return engine.pop(gameId, count);
+    }
+
+    @Override
+    public List<DeckCardEntity> dealCardsToPlayer(UUID gameId, UUID playerId, int count)
+    {
+        return engine.deal(gameId, playerId, count);
+    }
+
+    @Override
+    public Map<UUID, List<DeckCardEntity>> dealRound(UUID gameId, Map<UUID, Integer> countsBySeat)
+    {
+        return engine.dealRound(gameId, countsBySeat);
+    }
+
+    @Override
+    public void pushbackCardToShoe(UUID gameId, UUID cardId)
+    {
+        pushbackCardsToShoe(gameId, List.of(cardId));
+    }
+
+    @Override
+    public Optional<List<UUID>> pushbackCardsToShoe(UUID gameId, List<UUID> cardIds)
+    {
+        if (cardIds == null || cardIds.isEmpty())
+            return engine.gameExists(gameId) ? Optional.of(List.of()) : Optional.empty();
+
+        return engine.pushback(gameId, engine.resolveDeckCards(cardIds))
+                .map(cards -> cards.stream().map(DeckCardEntity::id).toList());
+    }
+
+    @Override
+    public boolean shuffleShoe(UUID gameId)
+    {
+        return engine.shuffle(gameId);
+    }
+}
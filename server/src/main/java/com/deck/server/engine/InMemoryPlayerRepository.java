@@ -0,0 +1,148 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.entity.PlayerEntity;
+import com.deck.server.entity.PlayerHandEntity;
+import com.deck.server.entity.PlayerJoinEntity;
+import com.deck.server.entity.PlayerStandingEntity;
+import com.deck.server.repositories.IPlayerRepository;
+import com.deck.server.repositories.PlayerRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Serves hands from the {@link GameEngine} and keeps its player list in sync with the player table.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "deck.engine.mode", havingValue = "MEMORY")
+public class InMemoryPlayerRepository implements IPlayerRepository
+{
+    private final PlayerRepository players;
+    private final GameEngine engine;
+
+    public InMemoryPlayerRepository(PlayerRepository players, GameEngine engine)
+    {
+        this.players = players;
+        this.engine = engine;
+    }
+
+    @Override
+    public UUID addPlayerToGame(UUID gameId, UUID userId)
+    {
+        UUID playerId = players.addPlayerToGame(gameId, userId);
+        engine.playerJoined(gameId, playerId);
+        return playerId;
+    }
+
+    @Override
+    public PlayerJoinEntity joinGame(UUID gameId, UUID userId)
+    {
+        PlayerJoinEntity joined = players.joinGame(gameId, userId);
+        if (joined.playerId() != null)
+            engine.playerJoined(gameId, joined.playerId());
+        return joined;
+    }
+
+    @Override
+    public Optional<UUID> removePlayerFromGame(UUID playerId)
+    {
+        engine.flushGameOfPlayer(playerId);
+        Optional<UUID> gameId = players.removePlayerFromGame(playerId);
+        engine.playerLeft(playerId);
+        return gameId;
+    }
+
+    @Override
+    public List<PlayerEntity> getAllPlayersInGame(UUID gameId)
+    {
+        return players.getAllPlayersInGame(gameId);
+    }
+
+    @Override
+    public List<PlayerStandingEntity> getStandingsForGame(UUID gameId, Integer limit)
+    {
+        List<PlayerStandingEntity> standings = new ArrayList<>();
+        for (PlayerEntity player : players.getAllPlayersInGame(gameId))
+        {
+            int total = 0;
+            for (DeckCardEntity card : engine.getHand(player.id()))
+                total += engine.definition(card.card_def_id()).rank().toShort();
+            standings.add(new PlayerStandingEntity(player.id(), player.userName(), total));
+        }
+
+        // Stable, so players with the same total stay in join order like in the SQL version
+        standings.sort(Comparator.comparingInt(PlayerStandingEntity::totalValue).reversed());
+        return limit == null || limit >= standings.size() ? standings : standings.subList(0, limit);
+    }
+
+    @Override
+    public boolean doesPlayerExist(UUID playerId)
+    {
+        return players.doesPlayerExist(playerId);
+    }
+
+    @Override
+    public Optional<UUID> getGameOfPlayer(UUID playerId)
+    {
+        return players.getGameOfPlayer(playerId);
+    }
+
+    @Override
+    public Optional<Long> getGameVersionOfPlayer(UUID playerId)
+    {
+        return engine.getVersionOfPlayerGame(playerId);
+    }
+
+    @Override
+    public List<CardDefinition> getHandForPlayer(UUID playerId)
+    {
+        return engine.getHand(playerId)
+                .stream()
+                .map(card -> engine.definition(card.card_def_id()))
+                .toList();
+    }
+
+    @Override
+    public List<PlayerHandEntity> getHandsForGame(UUID gameId)
+    {
+        // Names from the player table, cards from memory, in the engine's join order
+        Map<UUID, String> names = new HashMap<>();
+        for (PlayerEntity player : players.getAllPlayersInGame(gameId))
+            names.put(player.id(), player.userName());
+
+        List<PlayerHandEntity> hands = new ArrayList<>();
+        engine.getHands(gameId).orElseGet(Map::of).forEach((playerId, cards) ->
+        {
+            if (names.containsKey(playerId))
+            {
+                hands.add(new PlayerHandEntity(playerId, names.get(playerId), cards
+                        .stream()
+                        .map(card -> engine.definition(card.card_def_id()))
+                        .toList()));
+            }
+        });
+        return hands;
+    }
+
+    @Override
+    public void addCardsToPlayerHand(UUID playerId, List<DeckCardEntity> cards)
+    {
+        if (cards == null || cards.isEmpty())
+            return;
+
+        // Into the in-memory hand like a deal, so it is queued in order with the other changes of the game
+        if (!engine.handOut(playerId, cards))
+            throw new IllegalArgumentException("Player " + playerId + " is not in any game");
+    }
+}
@@ -0,0 +1,28 @@
+package com.deck.server.engine;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A change made to an in-memory game that still has to be written to the store.
+ */
+public sealed interface PendingWrite
+{
+    /** Cards pushed to the bottom of the shoe, in order. */
+    record ShoeAppended(List<UUID> cardIds) implements PendingWrite { }
+
+    /** Cards taken from the top of the shoe into a player's hand, starting at the given hand order. */
+    record CardsDealt(UUID playerId, List<UUID> cardIds, int firstHandOrder) implements PendingWrite { }
+
+    /** Cards put straight into a player's hand without coming from the shoe, starting at the given hand order. */
+    record CardsHandedOut(UUID playerId, List<UUID> cardIds, int firstHandOrder) implements PendingWrite { }
+
+    /** Cards taken from the shoe without going to a hand. */
+    record CardsRemoved(List<UUID> cardIds) implements PendingWrite { }
+
+    /** The complete new order of the shoe after a shuffle. */
+    record ShoeReordered(List<UUID> cardIds) implements PendingWrite { }
+
+    /** The game's state version after the changes before it. Later ones supersede it, only the last is stored. */
+    record VersionBumped(long version) implements PendingWrite { }
+}
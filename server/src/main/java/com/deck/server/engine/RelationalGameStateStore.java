@@ -0,0 +1,267 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.DeckCardEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Persists in-memory games to the regular shoe_card / hand_card tables.
+ */
+@Component
+@ConditionalOnProperty(name = "deck.engine.mode", havingValue = "MEMORY")
+@ConditionalOnProperty(name = "deck.engine.store", havingValue = "RELATIONAL", matchIfMissing = true)
+public class RelationalGameStateStore implements GameStateStore
+{
+    /** Takes the cards returned by the named CTE off the shoe summary. */
+    private static final String DECREMENT_SUMMARY = """
+            UPDATE shoe_summary ss
+            SET remaining = ss.remaining - c.removed
+            FROM (
+                SELECT d.card_def_id, COUNT(*) AS removed
+                FROM %s r
+                JOIN deck_card d ON d.id = r.card_id
+                GROUP BY d.card_def_id
+            ) c
+            WHERE ss.game_id = :gameId AND ss.card_def_id = c.card_def_id
+            """;
+
+    private final JdbcClient db;
+
+    public RelationalGameStateStore(JdbcClient db)
+    {
+        this.db = db;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<GameSnapshot> load(UUID gameId)
+    {
+        Optional<Long> version = db.sql("SELECT version FROM game WHERE id = :id")
+                .param("id", gameId)
+                .query(Long.class)
+                .optional();
+        if (version.isEmpty())
+            return Optional.empty();
+
+        List<DeckCardEntity> shoe = db.sql("""
+            SELECT d.id, d.deck_id, d.card_def_id
+            FROM shoe_card s
+            JOIN deck_card d ON d.id = s.card_id
+            WHERE s.game_id = :gameId
+            ORDER BY s.order_key
+            """)
+                .param("gameId", gameId)
+                .query((rs, rowNum) -> new DeckCardEntity(
+                        (UUID) rs.getObject("id"),
+                        (UUID) rs.getObject("deck_id"),
+                        ((Number) rs.getObject("card_def_id")).shortValue()
+                ))
+                .list();
+
+        // Hand orders can have gaps (cards handed out directly, older data), so the next one follows the highest
+        Map<UUID, List<DeckCardEntity>> hands = new LinkedHashMap<>();
+        Map<UUID, Integer> lastHandOrders = new HashMap<>();
+        db.sql("""
+            SELECT p.id AS player_id, h.hand_order, d.id, d.deck_id, d.card_def_id
+            FROM player p
+            LEFT JOIN hand_card h ON h.player_id = p.id
+            LEFT JOIN deck_card d ON d.id = h.card_id
+            WHERE p.game_id = :gameId
+            ORDER BY p.added_at, p.id, h.hand_order
+            """)
+                .param("gameId", gameId)
+                .query(rs ->
+                {
+                    UUID playerId = (UUID) rs.getObject("player_id");
+                    List<DeckCardEntity> hand = hands.computeIfAbsent(playerId, id -> new ArrayList<>());
+                    UUID cardId = (UUID) rs.getObject("id");
+                    if (cardId != null)
+                    {
+                        lastHandOrders.merge(playerId, rs.getInt("hand_order"), Math::max);
+                        hand.add(new DeckCardEntity(
+                                cardId,
+                                (UUID) rs.getObject("deck_id"),
+                                ((Number) rs.getObject("card_def_id")).shortValue()));
+                    }
+                });
+
+        return Optional.of(new GameSnapshot(shoe, hands, lastHandOrders, version.get()));
+    }
+
+    @Override
+    public Optional<UUID> findGameOfPlayer(UUID playerId)
+    {
+        return db.sql("SELECT game_id FROM player WHERE id = :id")
+                .param("id", playerId)
+                .query(UUID.class)
+                .optional();
+    }
+
+    @Override
+    public List<DeckCardEntity> findDeckCards(List<UUID> cardIds)
+    {
+        return db.sql("SELECT id, deck_id, card_def_id FROM deck_card WHERE id IN (:ids)")
+                .param("ids", cardIds)
+                .query((rs, rowNum) -> new DeckCardEntity(
+                        (UUID) rs.getObject("id"),
+                        (UUID) rs.getObject("deck_id"),
+                        ((Number) rs.getObject("card_def_id")).shortValue()
+                ))
+                .list();
+    }
+
+    @Override
+    @Transactional
+    public void write(UUID gameId, List<PendingWrite> writes)
+    {
+        long version = -1;
+        for (int i = 0; i < writes.size(); i++)
+        {
+            PendingWrite write = writes.get(i);
+
+            // Only the last of several back-to-back shuffles needs to reach the table
+            if (write instanceof PendingWrite.ShoeReordered
+                    && i + 1 < writes.size()
+                    && writes.get(i + 1) instanceof PendingWrite.ShoeReordered)
+                continue;
+
+            if (write instanceof PendingWrite.ShoeAppended appended)
+                appendToShoe(gameId, appended.cardIds());
+            else if (write instanceof PendingWrite.CardsDealt dealt)
+                moveToHand(gameId, dealt.playerId(), dealt.cardIds(), dealt.firstHandOrder());
+            else if (write instanceof PendingWrite.CardsHandedOut handedOut)
+                addToHand(handedOut.playerId(), handedOut.cardIds(), handedOut.firstHandOrder());
+            else if (write instanceof PendingWrite.CardsRemoved removed)
+                removeFromShoe(gameId, removed.cardIds());
+            else if (write instanceof PendingWrite.ShoeReordered reordered)
+                reorderShoe(gameId, reordered.cardIds());
+            else if (write instanceof PendingWrite.VersionBumped bumped)
+                version = bumped.version();
+        }
+
+        if (version >= 0)
+            writeVersion(db, gameId, version);
+    }
+
+    /**
+     * Stores the version reached in memory. Never moves it backwards, in case an older batch is written late.
+     */
+    static void writeVersion(JdbcClient db, UUID gameId, long version)
+    {
+        db.sql("UPDATE game SET version = GREATEST(version, :version) WHERE id = :id")
+                .param("version", version)
+                .param("id", gameId)
+                .update();
+    }
+
+    private void appendToShoe(UUID gameId, List<UUID> cardIds)
+    {
+        List<Object[]> rows = new ArrayList<>(cardIds.size());
+        for (int i = 0; i < cardIds.size(); i++)
+            rows.add(new Object[]{ cardIds.get(i), (long) i + 1 });
+
+        db.sql("""
+            WITH inserted AS (
+                INSERT INTO shoe_card (game_id, card_id, order_key)
+                SELECT :gameId, v.card_id, bottom.order_key + v.position
+                FROM (VALUES :rows) AS v(card_id, position)
+                CROSS JOIN (
+                    SELECT COALESCE(MAX(order_key), 0) AS order_key
+                    FROM shoe_card
+                    WHERE game_id = :gameId
+                ) bottom
+                RETURNING card_id
+            )
+            INSERT INTO shoe_summary (game_id, card_def_id, remaining)
+            SELECT :gameId, d.card_def_id, COUNT(*)
+            FROM inserted i
+            JOIN deck_card d ON d.id = i.card_id
+            GROUP BY d.card_def_id
+            ON CONFLICT (game_id, card_def_id)
+            DO UPDATE SET remaining = shoe_summary.remaining + EXCLUDED.remaining
+            """)
+                .param("gameId", gameId)
+                .param("rows", rows)
+                .update();
+    }
+
+    private void moveToHand(UUID gameId, UUID playerId, List<UUID> cardIds, int firstHandOrder)
+    {
+        List<Object[]> rows = new ArrayList<>(cardIds.size());
+        for (int i = 0; i < cardIds.size(); i++)
+            rows.add(new Object[]{ cardIds.get(i), firstHandOrder + i });
+
+        db.sql("""
+            WITH moved AS (
+                DELETE FROM shoe_card
+                WHERE game_id = :gameId AND card_id IN (:cardIds)
+                RETURNING card_id
+            ), counted AS (
+                %s
+            )
+            INSERT INTO hand_card (player_id, card_id, hand_order)
+            SELECT :playerId, v.card_id, v.hand_order
+            FROM (VALUES :rows) AS v(card_id, hand_order)
+            JOIN moved m ON m.card_id = v.card_id
+            """.formatted(DECREMENT_SUMMARY.formatted("moved")))
+                .param("gameId", gameId)
+                .param("playerId", playerId)
+                .param("cardIds", cardIds)
+                .param("rows", rows)
+                .update();
+    }
+
+    private void addToHand(UUID playerId, List<UUID> cardIds, int firstHandOrder)
+    {
+        List<Object[]> rows = new ArrayList<>(cardIds.size());
+        for (int i = 0; i < cardIds.size(); i++)
+            rows.add(new Object[]{ cardIds.get(i), firstHandOrder + i });
+
+        db.sql("""
+            INSERT INTO hand_card (player_id, card_id, hand_order)
+            SELECT :playerId, v.card_id, v.hand_order
+            FROM (VALUES :rows) AS v(card_id, hand_order)
+            """)
+                .param("playerId", playerId)
+                .param("rows", rows)
+                .update();
+    }
+
+    private void removeFromShoe(UUID gameId, List<UUID> cardIds)
+    {
+        db.sql("""
+            WITH removed AS (
+                DELETE FROM shoe_card
+                WHERE game_id = :gameId AND card_id IN (:cardIds)
+                RETURNING card_id
+            )
+            %s
+            """.formatted(DECREMENT_SUMMARY.formatted("removed")))
+                .param("gameId", gameId)
+                .param("cardIds", cardIds)
+                .update();
+    }
+
+    private void reorderShoe(UUID gameId, List<UUID> cardIds)
+    {
+        db.sql("SET CONSTRAINTS uq_shoe_order DEFERRED").update();
+
+        List<Object[]> rows = new ArrayList<>(cardIds.size());
+        for (int i = 0; i < cardIds.size(); i++)
+            rows.add(new Object[]{ cardIds.get(i), (long) i });
+
+        db.sql("""
+            UPDATE shoe_card s
+            SET order_key = v.order_key
+            FROM (VALUES :rows) AS v(card_id, order_key)
+            WHERE s.game_id = :gameId AND s.card_id = v.card_id
+            """)
+                .param("rows", rows)
+                .param("gameId", gameId)
+                .update();
+    }
+}
@@ -0,0 +1,18 @@
+package com.deck.server.entity;
+
+import java.util.List;
+import java.util.UUID;
+
+public record PlayerHandEntity(UUID playerId, String userName, List<CardDefinition> cards)
+{
+    /**
+     * Added value of the cards, same as the standings query.
+     */
+    public int totalValue()
+    {
+        int total = 0;
+        for (CardDefinition card : cards)
+            total += card.rank().toShort();
+        return total;
+    }
+}
@@ -0,0 +1,11 @@
+package com.deck.server.entity;
+
+import java.util.UUID;
+
+/**
+ * Outcome of a join attempt. {@code userName} is null when the user does not exist, {@code playerId} is null
+ * when nothing was inserted (missing game or user, or the user already plays in that game).
+ */
+public record PlayerJoinEntity(boolean gameExists, String userName, UUID playerId)
+{
+}
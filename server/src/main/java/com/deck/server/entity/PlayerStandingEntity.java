@@ -0,0 +1,7 @@
+package com.deck.server.entity;
+
+import java.util.UUID;
+
+public record PlayerStandingEntity(UUID playerId, String userName, int totalValue)
+{
+}
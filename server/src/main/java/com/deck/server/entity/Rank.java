@@ -16,6 +16,14 @@ public enum Rank
     QUEEN(12),
     KING(13);
 
+    private static final Rank[] BY_VALUE = new Rank[14];
+
+    static
+    {
+        for (Rank rank : values())
+            BY_VALUE[rank.value] = rank;
+    }
+
     private final short value;
 
     Rank(int value)
@@ -30,11 +38,9 @@ public enum Rank
 
     public static Rank fromShort(short value)
     {
-        for (Rank r : values())
-        {
-            if (r.value == value)
-                return r;
-        }
-        throw new IllegalArgumentException("Invalid rank code: " + value);
+        if (value < 0 || value >= BY_VALUE.length || BY_VALUE[value] == null)
+            throw new IllegalArgumentException("Invalid rank code: " + value);
+
+        return BY_VALUE[value];
     }
 }
@@ -0,0 +1,39 @@
+package com.deck.server.entity;
+
+/**
+ * How many cards of each suit and rank are left in a game's shoe.
+ * Counts are stored in a flat 4×13 matrix indexed by {@code suit.ordinal() * 13 + rank.ordinal()}.
+ */
+public record ShoeSummary(int[] counts)
+{
+    public static final int SIZE = Suit.values().length * Rank.values().length;
+
+    public ShoeSummary()
+    {
+        this(new int[SIZE]);
+    }
+
+    public static int indexOf(Suit suit, Rank rank)
+    {
+        return suit.ordinal() * Rank.values().length + rank.ordinal();
+    }
+
+    public void add(Suit suit, Rank rank, int count)
+    {
+        counts[indexOf(suit, rank)] += count;
+    }
+
+    public int remaining(Suit suit, Rank rank)
+    {
+        return counts[indexOf(suit, rank)];
+    }
+
+    public int remaining(Suit suit)
+    {
+        int total = 0;
+        int start = suit.ordinal() * Rank.values().length;
+        for (int i = start; i < start + Rank.values().length; i++)
+            total += counts[i];
+        return total;
+    }
+}
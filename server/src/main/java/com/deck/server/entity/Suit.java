@@ -7,6 +7,14 @@ public enum Suit
     CLUBS(2),
     DIAMONDS(3);
 
+    private static final Suit[] BY_CODE = new Suit[4];
+
+    static
+    {
+        for (Suit suit : values())
+            BY_CODE[suit.code] = suit;
+    }
+
     private final short code;
 
     Suit(int code)
@@ -27,12 +35,9 @@ public enum Suit
 
     public static Suit fromShort(short code)
     {
-        for (Suit suit : values())
-        {
-            if (suit.code == code)
-                return suit;
-        }
+        if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null)
+            throw new IllegalArgumentException("Invalid suit code: " + code);
 
-        throw new IllegalArgumentException("Invalid suit code: " + code);
+        return BY_CODE[code];
     }
 }
@@ -0,0 +1,31 @@
+package com.deck.server.events;
+
+import com.deck.server.dto.CardDto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A change to a game, published by {@code GameService} once per mutation and delivered after the transaction
+ * that made it commits.
+ */
+public sealed interface GameEvent
+{
+    UUID gameId();
+
+    record GameCreated(UUID gameId) implements GameEvent { }
+
+    record GameDeleted(UUID gameId) implements GameEvent { }
+
+    /** The cards of a deck that were pushed to the bottom of the shoe. */
+    record DeckAdded(UUID gameId, UUID deckId, List<CardDto> cards) implements GameEvent { }
+
+    /** Cards taken from the top of the shoe into a player's hand, in hand order. */
+    record CardsDealt(UUID gameId, UUID playerId, List<CardDto> cards) implements GameEvent { }
+
+    record ShoeShuffled(UUID gameId) implements GameEvent { }
+
+    record PlayerJoined(UUID gameId, UUID playerId, String playerName) implements GameEvent { }
+
+    record PlayerLeft(UUID gameId, UUID playerId) implements GameEvent { }
+}
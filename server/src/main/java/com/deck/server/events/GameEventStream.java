@@ -0,0 +1,97 @@
+package com.deck.server.events;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes the events of a game to every client subscribed to it over server-sent events.
+ * The event name is the simple name of the event record, the data is the record as JSON.
+ */
+@Component
+public class GameEventStream
+{
+    private final Map<UUID, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final long timeoutMillis;
+
+    public GameEventStream(@Value("${deck.events.sse-timeout:30m}") Duration timeout)
+    {
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(UUID gameId)
+    {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.compute(gameId, (id, emitters) ->
+        {
+            List<SseEmitter> updated = emitters == null ? new CopyOnWriteArrayList<>() : emitters;
+            updated.add(emitter);
+            return updated;
+        });
+
+        emitter.onCompletion(() -> unsubscribe(gameId, emitter));
+        emitter.onTimeout(() -> unsubscribe(gameId, emitter));
+        emitter.onError(ex -> unsubscribe(gameId, emitter));
+        return emitter;
+    }
+
+    public int subscriberCount(UUID gameId)
+    {
+        List<SseEmitter> emitters = subscribers.get(gameId);
+        return emitters == null ? 0 : emitters.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameEvent(GameEvent event)
+    {
+        List<SseEmitter> emitters = subscribers.get(event.gameId());
+        if (emitters == null)
+            return;
+
+        // Built once, every subscriber gets the same serialized frame
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+                .name(event.getClass().getSimpleName())
+                .data(event)
+                .build();
+
+        for (SseEmitter emitter : emitters)
+        {
+            try
+            {
+                emitter.send(message);
+            }
+            catch (IOException | IllegalStateException ex)
+            {
+                // The client went away, it resynchronises when it reconnects
+                unsubscribe(event.gameId(), emitter);
+            }
+        }
+
+        if (event instanceof GameEvent.GameDeleted)
+        {
+            List<SseEmitter> closed = subscribers.remove(event.gameId());
+            if (closed != null)
+                closed.forEach(SseEmitter::complete);
+        }
+    }
+
+    private void unsubscribe(UUID gameId, SseEmitter emitter)
+    {
+        subscribers.computeIfPresent(gameId, (id, emitters) ->
+        {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
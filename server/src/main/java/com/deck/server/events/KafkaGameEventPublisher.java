@@ -0,0 +1,61 @@
+package com.deck.server.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Appends every committed {@link GameEvent} to a Kafka topic, keyed by game id so the events of one game
+ * stay in order on their partition. Sends are asynchronous and batched by the producer (see
+ * {@code spring.kafka.producer} in application.yaml), a failed send is logged and does not fail the request.
+ * <p>
+ * The send itself runs on the request thread after the commit. It blocks while the producer has no metadata for the
+ * topic or its buffer is full, at most {@code max.block.ms} (500 ms in application.yaml), so an unreachable broker
+ * delays each mutating request by up to that much.
+ * The topic itself is declared in {@link com.deck.server.config.KafkaEventsConfig}.
+ */
+@Component
+@ConditionalOnProperty(name = "deck.events.kafka.enabled", havingValue = "true")
+public class KafkaGameEventPublisher
+{
+    private static final Logger log = LoggerFactory.getLogger(KafkaGameEventPublisher.class);
+
+    private final KafkaTemplate<String, GameEvent> kafka;
+    private final String topic;
+
+    public KafkaGameEventPublisher(
+            KafkaTemplate<String, GameEvent> kafka,
+            @Value("${deck.events.kafka.topic:game-events}") String topic)
+    {
+        this.kafka = kafka;
+        this.topic = topic;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameEvent(GameEvent event)
+    {
+        try
+        {
+            kafka.send(topic, event.gameId().toString(), event)
+                    .whenComplete((result, ex) ->
+                    {
+                        if (ex != null)
+                            logFailure(event, ex);
+                    });
+        }
+        catch (RuntimeException ex)
+        {
+            // Thrown rather than reported through the future when max.block.ms runs out
+            logFailure(event, ex);
+        }
+    }
+
+    private static void logFailure(GameEvent event, Throwable ex)
+    {
+        log.error("Could not publish {} for game {}", event.getClass().getSimpleName(), event.gameId(), ex);
+    }
+}
@@ -2,10 +2,17 @@ package com.deck.server.exceptions;
 
 import org.springframework.http.HttpStatus;
 
+import java.util.UUID;
+
 public class CountMustBePositiveException extends CardsExceptionBase
 {
     public CountMustBePositiveException(int count)
     {
         super("Count must be positive, but was " + count, HttpStatus.BAD_REQUEST);
     }
+
+    public CountMustBePositiveException(UUID playerId)
+    {
+        super("Count for player " + playerId + " must be positive, but was missing", HttpStatus.BAD_REQUEST);
+    }
 }
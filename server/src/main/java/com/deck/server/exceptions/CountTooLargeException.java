@@ -0,0 +1,11 @@
+package com.deck.server.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class CountTooLargeException extends CardsExceptionBase
+{
+    public CountTooLargeException(int count, int max)
+    {
+        super("Count must be at most " + max + ", but was " + count, HttpStatus.BAD_REQUEST);
+    }
+}
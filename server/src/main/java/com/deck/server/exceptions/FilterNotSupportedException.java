@@ -0,0 +1,11 @@
+package com.deck.server.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class FilterNotSupportedException extends CardsExceptionBase
+{
+    public FilterNotSupportedException(String filter, String setting)
+    {
+        super("Filter " + filter + " is not supported with " + setting + ".", HttpStatus.BAD_REQUEST);
+    }
+}
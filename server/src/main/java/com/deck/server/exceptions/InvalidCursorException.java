@@ -0,0 +1,11 @@
+package com.deck.server.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends CardsExceptionBase
+{
+    public InvalidCursorException(String cursor)
+    {
+        super("Invalid page cursor " + cursor, HttpStatus.BAD_REQUEST);
+    }
+}
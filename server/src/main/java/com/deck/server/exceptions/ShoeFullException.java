@@ -0,0 +1,13 @@
+package com.deck.server.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+import java.util.UUID;
+
+public class ShoeFullException extends CardsExceptionBase
+{
+    public ShoeFullException(UUID gameId, int max)
+    {
+        super("Game with id " + gameId + " cannot hold more than " + max + " cards.", HttpStatus.CONFLICT);
+    }
+}
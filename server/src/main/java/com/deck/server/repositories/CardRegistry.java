@@ -0,0 +1,84 @@
+package com.deck.server.repositories;
+
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.Rank;
+import com.deck.server.entity.Suit;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Process-wide, immutable copy of the card_definition table, indexed by id.
+ * The definitions never change once populated, so rows that reference a card only need to carry its
+ * card_def_id and can be resolved here without joining card_definition.
+ */
+@Component
+public class CardRegistry
+{
+    private record Snapshot(CardDefinition[] byId, List<CardDefinition> all) { }
+
+    private static final Snapshot EMPTY = new Snapshot(new CardDefinition[0], List.of());
+
+    private final JdbcClient db;
+    private volatile Snapshot snapshot = EMPTY;
+
+    public CardRegistry(JdbcClient db)
+    {
+        this.db = db;
+    }
+
+    /**
+     * Reads every definition from the database, replacing what was loaded before.
+     */
+    public synchronized void reload()
+    {
+        List<CardDefinition> all = db.sql("SELECT id, suit, rank FROM card_definition ORDER BY suit, rank")
+                .query((rs, rowNum) -> new CardDefinition(
+                        rs.getShort("id"),
+                        Suit.fromShort(rs.getShort("suit")),
+                        Rank.fromShort(rs.getShort("rank"))
+                ))
+                .list();
+
+        int maxId = 0;
+        for (CardDefinition def : all)
+            maxId = Math.max(maxId, def.id());
+
+        CardDefinition[] byId = new CardDefinition[maxId + 1];
+        for (CardDefinition def : all)
+            byId[def.id()] = def;
+
+        snapshot = new Snapshot(byId, List.copyOf(all));
+    }
+
+    public List<CardDefinition> getAll()
+    {
+        return loaded().all();
+    }
+
+    public Optional<CardDefinition> find(short id)
+    {
+        CardDefinition[] byId = loaded().byId();
+        return id >= 0 && id < byId.length ? Optional.ofNullable(byId[id]) : Optional.empty();
+    }
+
+    /**
+     * Resolves a card_def_id read from another table. Those always reference an existing definition.
+     */
+    public CardDefinition get(short id)
+    {
+        return find(id).orElseThrow(() -> new IllegalArgumentException("Invalid card definition id: " + id));
+    }
+
+    private Snapshot loaded()
+    {
+        Snapshot current = snapshot;
+        if (current == EMPTY)
+        {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+}
@@ -11,50 +11,45 @@ import java.util.*;
 public class CardRepository implements ICardRepository
 {
     private final JdbcClient db;
-    public CardRepository(JdbcClient db) { this.db = db; }
+    private final CardRegistry registry;
+
+    public CardRepository(JdbcClient db, CardRegistry registry)
+    {
+        this.db = db;
+        this.registry = registry;
+    }
 
     @Override
     public void populateAll()
     {
+        List<Object[]> rows = new ArrayList<>(Suit.values().length * Rank.values().length);
         for (Suit suit : Suit.values())
         {
             for (Rank rank : Rank.values())
-            {
-                db.sql("""
-                    INSERT INTO card_definition(suit, rank)
-                    VALUES (:suit, :rank)
-                    ON CONFLICT (suit, rank) DO NOTHING
-                    """)
-                        .param("suit", suit.toShort())
-                        .param("rank", rank.toShort())
-                        .update();
-            }
+                rows.add(new Object[]{ suit.toShort(), rank.toShort() });
         }
+
+        db.sql("""
+            INSERT INTO card_definition(suit, rank)
+            VALUES :rows
+            ON CONFLICT (suit, rank) DO NOTHING
+            """)
+                .param("rows", rows)
+                .update();
+
+        registry.reload();
     }
 
     @Override
     public List<CardDefinition> getAll()
     {
-        return db.sql("SELECT id, suit, rank FROM card_definition ORDER BY suit, rank")
-                .query((rs, rowNum) -> new CardDefinition(
-                        rs.getShort("id"),
-                        Suit.fromShort(rs.getShort("suit")),
-                        Rank.fromShort(rs.getShort("rank"))
-                ))
-                .list();
+        return registry.getAll();
     }
 
     @Override
     public Optional<CardDefinition> getById(short id)
     {
-        return db.sql("SELECT id, suit, rank FROM card_definition WHERE id=:id")
-                .param("id", id)
-                .query((rs, rowNum) -> new CardDefinition(
-                        rs.getShort("id"),
-                        Suit.fromShort(rs.getShort("suit")),
-                        Rank.fromShort(rs.getShort("rank"))
-                ))
-                .optional();
+        return registry.find(id);
     }
 
     @Override
@@ -63,17 +58,9 @@ public class CardRepository implements ICardRepository
         if (ids == null || ids.isEmpty())
             return Collections.emptyList();
 
-        return db.sql("""
-            SELECT id, suit, rank
-            FROM card_definition
-            WHERE id IN (:ids)
-            """)
-                .param("ids", ids)
-                .query((rs, rowNum) -> new CardDefinition(
-                        rs.getShort("id"),
-                        Suit.fromShort(rs.getShort("suit")),
-                        Rank.fromShort(rs.getShort("rank"))
-                ))
-                .list();
+        List<CardDefinition> result = new ArrayList<>(ids.size());
+        for (short id : ids)
+            registry.find(id).ifPresent(result::add);
+        return result;
     }
 }
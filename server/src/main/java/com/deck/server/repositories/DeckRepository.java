@@ -84,16 +84,11 @@ public class DeckRepository implements IDeckRepository
     @Override
     public boolean doesDeckExist(UUID deckId)
     {
-        int count = db.sql("""
-        SELECT COUNT(*)
-        FROM deck
-        WHERE id = :id
-        """)
+        return db.sql("SELECT 1 FROM deck WHERE id = :id")
                 .param("id", deckId)
                 .query(Integer.class)
-                .single();
-
-        return count > 0;
+                .optional()
+                .isPresent();
     }
 
     @Override
@@ -112,6 +107,43 @@ public class DeckRepository implements IDeckRepository
         return id;
     }
 
+    @Override
+    public int addAllCardsToDeck(UUID deckId)
+    {
+        return db.sql("""
+            INSERT INTO deck_card(id, deck_id, card_def_id)
+            SELECT gen_random_uuid(), :deckId, def.id
+            FROM card_definition def
+            ORDER BY def.suit, def.rank
+            """)
+                .param("deckId", deckId)
+                .update();
+    }
+
+    @Override
+    public List<UUID> createFullDecks(String name, int count)
+    {
+        return db.sql("""
+            WITH new_deck AS (
+                INSERT INTO deck(id, name)
+                SELECT gen_random_uuid(), :name
+                FROM generate_series(1, :count)
+                RETURNING id, created_at
+            ), new_card AS (
+                INSERT INTO deck_card(id, deck_id, card_def_id)
+                SELECT gen_random_uuid(), d.id, def.id
+                FROM new_deck d
+                CROSS JOIN card_definition def
+                ORDER BY d.id, def.suit, def.rank
+            )
+            SELECT id FROM new_deck
+            """)
+                .param("name", name)
+                .param("count", count)
+                .query(UUID.class)
+                .list();
+    }
+
     @Override
     public List<DeckCardEntity> getCardsInDeck(UUID deckId)
     {
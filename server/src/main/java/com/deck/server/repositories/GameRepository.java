@@ -1,33 +1,67 @@
 package com.deck.server.repositories;
 
+import com.deck.server.config.ShoeLockMode;
+import com.deck.server.config.ShuffleMode;
 import com.deck.server.entity.*;
+import com.deck.server.shuffle.ShuffleRandomSource;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public class GameRepository implements IGameRepository
 {
     private final JdbcClient db;
-    public GameRepository(JdbcClient db) { this.db = db; }
+    private final CardRegistry cards;
+    private final ShoeLockMode lockMode;
+    private final ShuffleMode defaultShuffleMode;
+    private final ShuffleRandomSource random;
+
+    public GameRepository(
+            JdbcClient db,
+            CardRegistry cards,
+            @Value("${deck.shoe.lock-mode:ADVISORY_LOCK}") ShoeLockMode lockMode,
+            @Value("${deck.shoe.shuffle-mode:JAVA}") ShuffleMode defaultShuffleMode,
+            ShuffleRandomSource random)
+    {
+        this.db = db;
+        this.cards = cards;
+        this.lockMode = lockMode;
+        this.defaultShuffleMode = defaultShuffleMode;
+        this.random = random;
+    }
 
     @Override
     public UUID createGame()
+    {
+        return createGame(defaultShuffleMode);
+    }
+
+    @Override
+    public UUID createGame(ShuffleMode shuffleMode)
     {
         UUID id = UUID.randomUUID();
-        db.sql("INSERT INTO game(id) VALUES (:id)")
-                .param("id", id).update();
+        db.sql("INSERT INTO game(id, shuffle_mode) VALUES (:id, :shuffleMode)")
+                .param("id", id)
+                .param("shuffleMode", shuffleMode.name())
+                .update();
         return id;
     }
 
     @Override
-    public void deleteGame(UUID gameId)
+    public boolean deleteGame(UUID gameId)
     {
-        db.sql("DELETE FROM game WHERE id=:id").param("id", gameId).update();
+        return db.sql("DELETE FROM game WHERE id=:id").param("id", gameId).update() > 0;
     }
 
     @Override
@@ -38,13 +72,51 @@ public class GameRepository implements IGameRepository
     }
 
     @Override
-    public List<GameEntity> getAll()
+    public Optional<Long> getVersion(UUID gameId)
     {
-        return db.sql("""
-            SELECT id, created_at
-            FROM game
-            ORDER BY created_at DESC
-            """)
+        return db.sql("SELECT version FROM game WHERE id = :id")
+                .param("id", gameId)
+                .query(Long.class)
+                .optional();
+    }
+
+    @Override
+    public void bumpVersion(UUID gameId)
+    {
+        db.sql("UPDATE game SET version = version + 1 WHERE id = :id")
+                .param("id", gameId)
+                .update();
+    }
+
+    @Override
+    public List<GameEntity> getPage(GameEntity after, int limit, boolean withPlayers, boolean withCardsRemaining)
+    {
+        // Only the conditions that apply are added, so each combination gets a plain plan walking ix_game_created
+        // backwards and probing the filter indices per game
+        List<String> where = new ArrayList<>(3);
+        if (after != null)
+            where.add("(g.created_at, g.id) < (:afterCreatedAt, :afterId)");
+        if (withPlayers)
+            where.add("EXISTS (SELECT 1 FROM player p WHERE p.game_id = g.id)");
+        if (withCardsRemaining)
+            where.add("EXISTS (SELECT 1 FROM shoe_summary ss WHERE ss.game_id = g.id AND ss.remaining > 0)");
+
+        var statement = db.sql("""
+            SELECT g.id, g.created_at
+            FROM game g
+            %s
+            ORDER BY g.created_at DESC, g.id DESC
+            LIMIT :limit
+            """.formatted(where.isEmpty() ? "" : "WHERE " + String.join(" AND ", where)))
+                .param("limit", limit);
+        if (after != null)
+        {
+            statement = statement
+                    .param("afterCreatedAt", after.createdAt())
+                    .param("afterId", after.id());
+        }
+
+        return statement
                 .query((rs, rowNum) -> new GameEntity(
                         rs.getObject("id", UUID.class),
                         rs.getObject("created_at", java.time.OffsetDateTime.class)
@@ -55,47 +127,112 @@ public class GameRepository implements IGameRepository
     @Override
     public void pushbackCardToShoe(UUID gameId, UUID cardId)
     {
-        long orderKey = getNextShoeIndexForGame(gameId);
+        pushbackCardsToShoe(gameId, List.of(cardId));
+    }
 
-        db.sql("""
-            INSERT INTO shoe_card (game_id, card_id, order_key)
-            SELECT :gameId, :cardId, :orderKey
-            WHERE NOT EXISTS (
-                SELECT 1 FROM shoe_card
-                WHERE game_id = :gameId AND card_id = :cardId
+    @Override
+    public Optional<List<UUID>> pushbackCardsToShoe(UUID gameId, List<UUID> cardIds)
+    {
+        if (cardIds == null || cardIds.isEmpty())
+            return doesGameExist(gameId) ? Optional.of(List.of()) : Optional.empty();
+
+        lockShoe(gameId);
+
+        // Positions are relative to the current bottom of the shoe, which is read once in the same statement.
+        // The final SELECT returns no row when the game is missing, and a single null row when it exists but every
+        // card was already in the shoe.
+        List<Object[]> rows = new ArrayList<>(cardIds.size());
+        for (int i = 0; i < cardIds.size(); i++)
+            rows.add(new Object[]{ cardIds.get(i), (long) i + 1 });
+
+        List<UUID> inserted = db.sql("""
+            WITH g AS (
+                SELECT id FROM game WHERE id = :gameId
+            ), inserted AS (
+                INSERT INTO shoe_card (game_id, card_id, order_key)
+                SELECT g.id, v.card_id, bottom.order_key + v.position
+                FROM g
+                CROSS JOIN (VALUES :rows) AS v(card_id, position)
+                CROSS JOIN (
+                    SELECT COALESCE(MAX(order_key), 0) AS order_key
+                    FROM shoe_card
+                    WHERE game_id = :gameId
+                ) bottom
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM shoe_card
+                    WHERE game_id = :gameId AND card_id = v.card_id
+                )
+                RETURNING card_id, order_key
+            ), summary AS (
+                INSERT INTO shoe_summary (game_id, card_def_id, remaining)
+                SELECT :gameId, d.card_def_id, COUNT(*)
+                FROM inserted i
+                JOIN deck_card d ON d.id = i.card_id
+                GROUP BY d.card_def_id
+                ON CONFLICT (game_id, card_def_id)
+                DO UPDATE SET remaining = shoe_summary.remaining + EXCLUDED.remaining
             )
+            SELECT i.card_id
+            FROM g
+            LEFT JOIN inserted i ON true
+            ORDER BY i.order_key
             """)
                 .param("gameId", gameId)
-                .param("cardId", cardId)
-                .param("orderKey", orderKey)
-                .update();
+                .param("rows", rows)
+                .query((rs, rowNum) -> rs.getObject("card_id", UUID.class))
+                .list();
+
+        if (inserted.isEmpty())
+            return Optional.empty();
+        return Optional.of(inserted.stream().filter(Objects::nonNull).toList());
     }
 
     @Override
     public List<CardDefinition> getShoeCards(UUID gameId)
     {
         return db.sql("""
-        SELECT def.id   AS id,
-               def.suit AS suit,
-               def.rank AS rank
+        SELECT d.card_def_id
         FROM shoe_card s
         JOIN deck_card d ON d.id = s.card_id
-        JOIN card_definition def ON def.id = d.card_def_id
         WHERE s.game_id = :gameId
         ORDER BY s.order_key
         """)
                 .param("gameId", gameId)
-                .query((rs, rowNum) -> new CardDefinition(
-                        rs.getShort("id"),
-                        Suit.fromShort(rs.getShort("suit")),
-                        Rank.fromShort(rs.getShort("rank"))
-                ))
+                .query((rs, rowNum) -> cards.get(rs.getShort("card_def_id")))
                 .list();
     }
 
+    @Override
+    public Optional<ShoeSummary> getShoeSummary(UUID gameId)
+    {
+        // The game row is always returned, so no rows at all means no game
+        ShoeSummary summary = new ShoeSummary();
+        List<Boolean> rows = db.sql("""
+            SELECT ss.card_def_id, ss.remaining
+            FROM game g
+            LEFT JOIN shoe_summary ss ON ss.game_id = g.id
+            WHERE g.id = :gameId
+            """)
+                .param("gameId", gameId)
+                .query((rs, rowNum) ->
+                {
+                    short cardDefId = rs.getShort("card_def_id");
+                    if (!rs.wasNull())
+                    {
+                        CardDefinition def = cards.get(cardDefId);
+                        summary.add(def.suit(), def.rank(), rs.getInt("remaining"));
+                    }
+                    return true;
+                })
+                .list();
+        return rows.isEmpty() ? Optional.empty() : Optional.of(summary);
+    }
+
     @Override
     public List<DeckCardEntity> popCardsFromShoe(UUID gameId, int count)
     {
+        lockShoe(gameId);
+
         // 1. Select the top N cards from the shoe joined with their deck info
         List<DeckCardEntity> cards = db.sql("""
             SELECT d.id, d.deck_id, d.card_def_id
@@ -104,7 +241,8 @@ public class GameRepository implements IGameRepository
             WHERE s.game_id = :gameId
             ORDER BY s.order_key
             LIMIT :count
-        """)
+            %s
+        """.formatted(lockMode == ShoeLockMode.SKIP_LOCKED ? "FOR UPDATE OF s SKIP LOCKED" : ""))
                 .param("gameId", gameId)
                 .param("count", count)
                 .query((rs, rowNum) -> new DeckCardEntity(
@@ -117,11 +255,23 @@ public class GameRepository implements IGameRepository
         if (cards.isEmpty())
             return List.of();
 
-        // 2. Remove those cards from the shoe
+        // 2. Remove those cards from the shoe and from its summary
         db.sql("""
-            DELETE FROM shoe_card
-            WHERE game_id = :gameId
-              AND card_id IN (:cardIds)
+            WITH removed AS (
+                DELETE FROM shoe_card
+                WHERE game_id = :gameId
+                  AND card_id IN (:cardIds)
+                RETURNING card_id
+            )
+            UPDATE shoe_summary ss
+            SET remaining = ss.remaining - c.removed
+            FROM (
+                SELECT d.card_def_id, COUNT(*) AS removed
+                FROM removed r
+                JOIN deck_card d ON d.id = r.card_id
+                GROUP BY d.card_def_id
+            ) c
+            WHERE ss.game_id = :gameId AND ss.card_def_id = c.card_def_id
         """)
                 .param("gameId", gameId)
                 .param("cardIds", cards.stream().map(DeckCardEntity::id).toList())
@@ -130,80 +280,254 @@ public class GameRepository implements IGameRepository
         return cards;
     }
 
+    @Override
+    public List<DeckCardEntity> dealCardsToPlayer(UUID gameId, UUID playerId, int count)
+    {
+        lockShoe(gameId);
+        lockHands(List.of(playerId));
+
+        // Pops the top N cards, updates the shoe summary and appends the cards to the hand in one statement.
+        return db.sql("""
+            WITH top AS (
+                SELECT card_id
+                FROM shoe_card
+                WHERE game_id = :gameId
+                ORDER BY order_key
+                LIMIT :count
+                %s
+            ), popped AS (
+                DELETE FROM shoe_card s
+                USING top
+                WHERE s.game_id = :gameId AND s.card_id = top.card_id
+                RETURNING s.card_id, s.order_key
+            ), counted AS (
+                UPDATE shoe_summary ss
+                SET remaining = ss.remaining - c.removed
+                FROM (
+                    SELECT d.card_def_id, COUNT(*) AS removed
+                    FROM popped p
+                    JOIN deck_card d ON d.id = p.card_id
+                    GROUP BY d.card_def_id
+                ) c
+                WHERE ss.game_id = :gameId AND ss.card_def_id = c.card_def_id
+            ), last AS (
+                SELECT COALESCE(MAX(hand_order), 0) AS hand_order
+                FROM hand_card
+                WHERE player_id = :playerId
+            ), dealt AS (
+                INSERT INTO hand_card (player_id, card_id, hand_order)
+                SELECT :playerId, p.card_id, last.hand_order + row_number() OVER (ORDER BY p.order_key)
+                FROM popped p
+                CROSS JOIN last
+                RETURNING card_id, hand_order
+            )
+            SELECT d.id, d.deck_id, d.card_def_id
+            FROM dealt
+            JOIN deck_card d ON d.id = dealt.card_id
+            ORDER BY dealt.hand_order
+            """.formatted(lockMode == ShoeLockMode.SKIP_LOCKED ? "FOR UPDATE SKIP LOCKED" : ""))
+                .param("gameId", gameId)
+                .param("playerId", playerId)
+                .param("count", count)
+                .query((rs, rowNum) -> new DeckCardEntity(
+                        (UUID) rs.getObject("id"),
+                        (UUID) rs.getObject("deck_id"),
+                        ((Number) rs.getObject("card_def_id")).shortValue()
+                ))
+                .list();
+    }
+
+    @Override
+    public Map<UUID, List<DeckCardEntity>> dealRound(UUID gameId, Map<UUID, Integer> countsBySeat)
+    {
+        Map<UUID, List<DeckCardEntity>> dealt = new LinkedHashMap<>();
+        countsBySeat.keySet().forEach(playerId -> dealt.put(playerId, new ArrayList<>()));
+        if (countsBySeat.isEmpty())
+            return dealt;
+
+        lockShoe(gameId);
+        lockHands(countsBySeat.keySet());
+
+        // turns numbers every (pass, seat) from 1, which is also the position from the top of the card it gets.
+        // The whole round is popped, counted and inserted into the hands in one statement.
+        db.sql("""
+            WITH seats AS (
+                SELECT CAST(v.seat AS INTEGER) AS seat, CAST(v.player_id AS UUID) AS player_id, CAST(v.count AS INTEGER) AS count
+                FROM (VALUES :seats) AS v(seat, player_id, count)
+            ), turns AS (
+                SELECT s.player_id, row_number() OVER (ORDER BY pass, s.seat) AS position
+                FROM seats s
+                CROSS JOIN LATERAL generate_series(0, s.count - 1) AS pass
+            ), top AS (
+                SELECT card_id, row_number() OVER (ORDER BY order_key) AS position
+                FROM (
+                    SELECT card_id, order_key
+                    FROM shoe_card
+                    WHERE game_id = :gameId
+                    ORDER BY order_key
+                    LIMIT (SELECT COUNT(*) FROM turns)
+                    %s
+                ) t
+            ), popped AS (
+                DELETE FROM shoe_card s
+                USING top
+                WHERE s.game_id = :gameId AND s.card_id = top.card_id
+                RETURNING s.card_id
+            ), counted AS (
+                UPDATE shoe_summary ss
+                SET remaining = ss.remaining - c.removed
+                FROM (
+                    SELECT d.card_def_id, COUNT(*) AS removed
+                    FROM popped p
+                    JOIN deck_card d ON d.id = p.card_id
+                    GROUP BY d.card_def_id
+                ) c
+                WHERE ss.game_id = :gameId AND ss.card_def_id = c.card_def_id
+            ), last AS (
+                SELECT s.player_id, COALESCE(MAX(h.hand_order), 0) AS hand_order
+                FROM seats s
+                LEFT JOIN hand_card h ON h.player_id = s.player_id
+                GROUP BY s.player_id
+            ), dealt AS (
+                INSERT INTO hand_card (player_id, card_id, hand_order)
+                SELECT t.player_id, top.card_id, last.hand_order + row_number() OVER (PARTITION BY t.player_id ORDER BY t.position)
+                FROM turns t
+                JOIN top ON top.position = t.position
+                JOIN last ON last.player_id = t.player_id
+                RETURNING player_id, card_id, hand_order
+            )
+            SELECT dealt.player_id, d.id, d.deck_id, d.card_def_id
+            FROM dealt
+            JOIN deck_card d ON d.id = dealt.card_id
+            ORDER BY dealt.player_id, dealt.hand_order
+            """.formatted(lockMode == ShoeLockMode.SKIP_LOCKED ? "FOR UPDATE SKIP LOCKED" : ""))
+                .param("gameId", gameId)
+                .param("seats", seatRows(countsBySeat))
+                .query(rs ->
+                {
+                    dealt.get((UUID) rs.getObject("player_id")).add(new DeckCardEntity(
+                            (UUID) rs.getObject("id"),
+                            (UUID) rs.getObject("deck_id"),
+                            ((Number) rs.getObject("card_def_id")).shortValue()));
+                });
+
+        return dealt;
+    }
+
+    /**
+     * (seat, player id, count) rows for {@link #dealRound}, seats numbered in iteration order.
+     */
+    static List<Object[]> seatRows(Map<UUID, Integer> countsBySeat)
+    {
+        List<Object[]> rows = new ArrayList<>(countsBySeat.size());
+        countsBySeat.forEach((playerId, count) -> rows.add(new Object[]{ rows.size(), playerId, count }));
+        return rows;
+    }
+
     @Override
     @Transactional
-    public void shuffleShoe(UUID gameId)
+    public boolean shuffleShoe(UUID gameId)
     {
-        // Defer the constraint (good practice)
+        // uq_shoe_order is only checked at commit, which lets us rewrite every key in one statement.
         db.sql("SET CONSTRAINTS uq_shoe_order DEFERRED").update();
+        lockShoe(gameId);
 
-        var cards = db.sql("""
-        SELECT card_id, order_key
-        FROM shoe_card
-        WHERE game_id = :gameId
-        ORDER BY order_key
-        """)
+        // SQL games are reshuffled by this statement already, it only reports the mode for the others
+        Optional<ShuffleMode> mode = db.sql("""
+            WITH g AS (
+                SELECT shuffle_mode, shuffle_seed # CAST(shuffle_count + 1 AS BIGINT) AS seed
+                FROM game
+                WHERE id = :gameId
+            ), bumped AS (
+                UPDATE game
+                SET shuffle_count = shuffle_count + 1
+                WHERE id = :gameId AND shuffle_mode = 'SQL'
+            ), ordered AS (
+                SELECT s.card_id, row_number() OVER (ORDER BY hashtextextended(CAST(s.card_id AS text), g.seed), s.card_id) AS order_key
+                FROM shoe_card s
+                CROSS JOIN g
+                WHERE s.game_id = :gameId AND g.shuffle_mode = 'SQL'
+            ), moved AS (
+                UPDATE shoe_card s
+                SET order_key = o.order_key
+                FROM ordered o
+                WHERE s.game_id = :gameId AND s.card_id = o.card_id
+            )
+            SELECT shuffle_mode FROM g
+            """)
                 .param("gameId", gameId)
-                .query((rs, rowNum) -> new Object[]{
-                        rs.getObject("card_id", UUID.class),
-                        rs.getLong("order_key")
-                })
-                .list();
+                .query(String.class)
+                .optional()
+                .map(ShuffleMode::valueOf);
+        if (mode.isEmpty())
+            return false;
+        if (mode.get() == ShuffleMode.SQL)
+            return true;
 
-        int n = cards.size();
+        List<UUID> cardIds = db.sql("SELECT card_id FROM shoe_card WHERE game_id = :gameId")
+                .param("gameId", gameId)
+                .query(UUID.class)
+                .list();
+        int n = cardIds.size();
         if (n <= 1)
+            return true;
+
+        List<UUID> shuffled = new ArrayList<>(cardIds);
+        random.shuffle(shuffled);
+
+        writeShoeOrder(gameId, shuffled);
+        return true;
+    }
+
+    /**
+     * Serializes shoe mutations of one game when running in {@link ShoeLockMode#ADVISORY_LOCK} mode.
+     * The lock is released when the surrounding transaction ends.
+     */
+    private void lockShoe(UUID gameId)
+    {
+        if (lockMode != ShoeLockMode.ADVISORY_LOCK)
             return;
 
-        // 1️⃣ First, move all cards to a temporary safe range.
-        long tempBase = 1_000_000_000L;
-        for (int i = 0; i < n; i++)
-        {
-            UUID cardId = (UUID) cards.get(i)[0];
-            db.sql("""
-            UPDATE shoe_card
-            SET order_key = :temp
-            WHERE game_id = :gameId AND card_id = :cardId
-            """)
-                    .param("temp", tempBase + i)
-                    .param("gameId", gameId)
-                    .param("cardId", cardId)
-                    .update();
-        }
+        db.sql("SELECT pg_advisory_xact_lock(hashtextextended(CAST(:gameId AS text), 0))")
+                .param("gameId", gameId)
+                .query()
+                .listOfRows();
+    }
 
-        // 2️⃣ Shuffle in memory
-        Random rng = new Random();
-        for (int i = n - 1; i > 0; i--)
-        {
-            int j = rng.nextInt(i + 1);
-            var tmp = cards.get(i);
-            cards.set(i, cards.get(j));
-            cards.set(j, tmp);
-        }
+    /**
+     * Without the game-wide advisory lock, two deals to the same player would read the same MAX(hand_order) and
+     * collide on uq_hand_order. Locking the player rows (in id order, so rounds cannot deadlock each other) makes
+     * deals to one player take turns while deals to other players still run in parallel. NO KEY UPDATE does not
+     * conflict with the key-share locks the hand_card foreign key takes.
+     */
+    private void lockHands(Collection<UUID> playerIds)
+    {
+        if (lockMode == ShoeLockMode.ADVISORY_LOCK)
+            return;
 
-        // 3️⃣ Reassign fresh sequential order keys (no collisions possible)
-        for (int i = 0; i < n; i++)
-        {
-            UUID cardId = (UUID) cards.get(i)[0];
-            db.sql("""
-            UPDATE shoe_card
-            SET order_key = :newKey
-            WHERE game_id = :gameId AND card_id = :cardId
-            """)
-                    .param("newKey", i)
-                    .param("gameId", gameId)
-                    .param("cardId", cardId)
-                    .update();
-        }
+        db.sql("SELECT id FROM player WHERE id IN (:playerIds) ORDER BY id FOR NO KEY UPDATE")
+                .param("playerIds", playerIds)
+                .query(UUID.class)
+                .list();
     }
 
-    private long getNextShoeIndexForGame(UUID gameId)
+    /**
+     * Rewrites the order key of every given card to its index in the list, in a single UPDATE.
+     */
+    private void writeShoeOrder(UUID gameId, List<UUID> orderedCardIds)
     {
-        Long max = db.sql("SELECT MAX(order_key) FROM shoe_card WHERE game_id = :gameId")
-                .param("gameId", gameId)
-                .query(Long.class)
-                .optional()
-                .orElse(0L);
+        List<Object[]> rows = new ArrayList<>(orderedCardIds.size());
+        for (int i = 0; i < orderedCardIds.size(); i++)
+            rows.add(new Object[]{ orderedCardIds.get(i), (long) i });
 
-        return max + 1;
+        db.sql("""
+            UPDATE shoe_card s
+            SET order_key = v.order_key
+            FROM (VALUES :rows) AS v(card_id, order_key)
+            WHERE s.game_id = :gameId AND s.card_id = v.card_id
+            """)
+                .param("rows", rows)
+                .param("gameId", gameId)
+                .update();
     }
 }
@@ -15,7 +15,10 @@ public interface IDeckRepository
     boolean isDeckInUse(UUID deckId);
     boolean doesDeckExist(UUID deckId);
 
+    List<UUID> createFullDecks(String name, int count);
+
     UUID addCardToDeck(UUID deckId, short cardDefId);
+    int addAllCardsToDeck(UUID deckId);
     List<DeckCardEntity> getCardsInDeck(UUID deckId);
     void removeCardFromDeck(UUID deckCardId);
     void clearAllCardsFromDeck(UUID deckId);
@@ -1,21 +1,74 @@
 package com.deck.server.repositories;
 
+import com.deck.server.config.ShuffleMode;
 import com.deck.server.entity.CardDefinition;
 import com.deck.server.entity.DeckCardEntity;
 import com.deck.server.entity.GameEntity;
+import com.deck.server.entity.ShoeSummary;
+import com.deck.server.exceptions.FilterNotSupportedException;
+import com.deck.server.exceptions.ShoeFullException;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface IGameRepository
 {
     UUID createGame();
-    void deleteGame(UUID gameId);
+    UUID createGame(ShuffleMode shuffleMode);
+
+    /**
+     * Returns false when there was no such game.
+     */
+    boolean deleteGame(UUID gameId);
     boolean doesGameExist(UUID gameId);
-    List<GameEntity> getAll();
+
+    /**
+     * The game's state version, empty when the game does not exist.
+     */
+    Optional<Long> getVersion(UUID gameId);
+    void bumpVersion(UUID gameId);
+
+    /**
+     * Up to {@code limit} games, newest first by (created_at, id), starting right after {@code after} when it is set.
+     * {@code withPlayers} keeps games that have at least one player, {@code withCardsRemaining} games whose shoe
+     * still holds a card. Throws when the storage in use cannot tell the latter.
+     */
+    List<GameEntity> getPage(GameEntity after, int limit, boolean withPlayers, boolean withCardsRemaining)
+            throws FilterNotSupportedException;
 
     List<CardDefinition> getShoeCards(UUID gameId);
+
+    /**
+     * Empty when the game does not exist. An existing game with an empty shoe gets an empty summary.
+     */
+    Optional<ShoeSummary> getShoeSummary(UUID gameId);
     List<DeckCardEntity> popCardsFromShoe(UUID gameId, int count);
-    void pushbackCardToShoe(UUID gameId, UUID cardId);
-    void shuffleShoe(UUID gameId);
+
+    /**
+     * Returns the dealt cards in hand order. Nothing is dealt from an empty shoe or a missing game, callers that
+     * need to tell the two apart only check the game when the result is empty.
+     */
+    List<DeckCardEntity> dealCardsToPlayer(UUID gameId, UUID playerId, int count);
+
+    /**
+     * Deals round-robin from the top of the shoe, one card per seat per pass, until every player has received
+     * their count or the shoe is empty. Seats follow the iteration order of {@code countsBySeat}.
+     * Returns the cards each player received, in hand order.
+     */
+    Map<UUID, List<DeckCardEntity>> dealRound(UUID gameId, Map<UUID, Integer> countsBySeat);
+    void pushbackCardToShoe(UUID gameId, UUID cardId) throws ShoeFullException;
+
+    /**
+     * Appends the cards to the bottom of the shoe, skipping those already in it. Returns the ids of the cards
+     * actually appended, in shoe order, or empty when the game does not exist. Throws, leaving the shoe as it was,
+     * when the storage in use cannot hold that many cards.
+     */
+    Optional<List<UUID>> pushbackCardsToShoe(UUID gameId, List<UUID> cardIds) throws ShoeFullException;
+
+    /**
+     * Shuffles the shoe the way the game's {@link ShuffleMode} says. Returns false when the game does not exist.
+     */
+    boolean shuffleShoe(UUID gameId);
 }
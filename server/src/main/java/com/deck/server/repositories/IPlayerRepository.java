@@ -3,17 +3,43 @@ package com.deck.server.repositories;
 import com.deck.server.entity.CardDefinition;
 import com.deck.server.entity.DeckCardEntity;
 import com.deck.server.entity.PlayerEntity;
+import com.deck.server.entity.PlayerHandEntity;
+import com.deck.server.entity.PlayerJoinEntity;
+import com.deck.server.entity.PlayerStandingEntity;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface IPlayerRepository
 {
     UUID addPlayerToGame(UUID gameId, UUID userId);
-    void removePlayerFromGame(UUID playerId);
+
+    /**
+     * Checks the game and the user and inserts the player in the same statement.
+     */
+    PlayerJoinEntity joinGame(UUID gameId, UUID userId);
+    Optional<UUID> removePlayerFromGame(UUID playerId);
     List<PlayerEntity> getAllPlayersInGame(UUID gameId);
+    List<PlayerStandingEntity> getStandingsForGame(UUID gameId, Integer limit);
     boolean doesPlayerExist(UUID playerId);
 
+    /**
+     * The game the player is in, empty when the player does not exist.
+     */
+    Optional<UUID> getGameOfPlayer(UUID playerId);
+
+    /**
+     * The state version of the player's game, empty when the player does not exist.
+     */
+    Optional<Long> getGameVersionOfPlayer(UUID playerId);
+
     List<CardDefinition> getHandForPlayer(UUID playerId);
+
+    /**
+     * Every hand of the game in one query, players in join order and their cards in hand order. Players with no
+     * cards get an empty hand, a game without players (or no game at all) an empty list.
+     */
+    List<PlayerHandEntity> getHandsForGame(UUID gameId);
     void addCardsToPlayerHand(UUID playerId, List<DeckCardEntity> cards);
 }
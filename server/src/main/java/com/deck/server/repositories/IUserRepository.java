@@ -9,6 +9,7 @@ public interface IUserRepository
 {
     UUID createUser(String name, UUID id);
     Optional<User> getUserByName(String name);
+    Optional<User> getUserById(UUID userId);
     boolean doesUserExist(UUID userId);
     void deleteUser(UUID userId);
     List<User> getAllUsers();
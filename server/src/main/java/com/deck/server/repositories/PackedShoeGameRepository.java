@@ -0,0 +1,440 @@
+package com.deck.server.repositories;
+
+import com.deck.server.config.ShuffleMode;
+import com.deck.server.entity.*;
+import com.deck.server.exceptions.ShoeFullException;
+import com.deck.server.shuffle.ShuffleRandomSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Keeps the shoe packed on the game row (see the PACKED SHOE section of migrate.sql) instead of in shoe_card.
+ * Every shoe operation locks the game row, which also serializes concurrent deals on the same game.
+ * Games, hands and the shoe summary are stored as usual.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(name = "deck.shoe.storage", havingValue = "PACKED")
+@ConditionalOnProperty(name = "deck.engine.mode", havingValue = "DATABASE", matchIfMissing = true)
+public class PackedShoeGameRepository implements IGameRepository
+{
+    /** Ordinals are stored on two bytes. */
+    static final int MAX_CARDS = 1 << 16;
+
+    /** The card id at shoe position {@code i} of game row {@code g}. */
+    static final String CARD_AT = """
+            CAST(encode(substring(g.shoe_card_ids
+                FROM (get_byte(g.shoe, (g.shoe_cursor + i) * 2) * 256 + get_byte(g.shoe, (g.shoe_cursor + i) * 2 + 1)) * 16 + 1
+                FOR 16), 'hex') AS uuid)""";
+
+    /** The first {@code :count} undealt cards of the locked game row, numbered from 0. */
+    private static final String TOP = """
+            g AS (
+                SELECT shoe_card_ids, shoe, shoe_cursor
+                FROM game
+                WHERE id = :gameId
+                FOR UPDATE
+            ), top AS (
+                SELECT i, %s AS card_id
+                FROM g
+                CROSS JOIN generate_series(0, LEAST(:count, length(g.shoe) / 2 - g.shoe_cursor) - 1) AS i
+            ), advanced AS (
+                UPDATE game
+                SET shoe_cursor = shoe_cursor + (SELECT COUNT(*) FROM top)
+                WHERE id = :gameId
+            ), counted AS (
+                UPDATE shoe_summary ss
+                SET remaining = ss.remaining - c.removed
+                FROM (
+                    SELECT d.card_def_id, COUNT(*) AS removed
+                    FROM top t
+                    JOIN deck_card d ON d.id = t.card_id
+                    GROUP BY d.card_def_id
+                ) c
+                WHERE ss.game_id = :gameId AND ss.card_def_id = c.card_def_id
+            )""".formatted(CARD_AT);
+
+    private final GameRepository games;
+    private final JdbcClient db;
+    private final CardRegistry cards;
+    private final ShuffleRandomSource random;
+
+    public PackedShoeGameRepository(GameRepository games, JdbcClient db, CardRegistry cards, ShuffleRandomSource random)
+    {
+        this.games = games;
+        this.db = db;
+        this.cards = cards;
+        this.random = random;
+    }
+
+    @Override
+    public UUID createGame()
+    {
+        return games.createGame();
+    }
+
+    @Override
+    public UUID createGame(ShuffleMode shuffleMode)
+    {
+        return games.createGame(shuffleMode);
+    }
+
+    @Override
+    public boolean deleteGame(UUID gameId)
+    {
+        return games.deleteGame(gameId);
+    }
+
+    @Override
+    public boolean doesGameExist(UUID gameId)
+    {
+        return games.doesGameExist(gameId);
+    }
+
+    @Override
+    public Optional<Long> getVersion(UUID gameId)
+    {
+        return games.getVersion(gameId);
+    }
+
+    @Override
+    public void bumpVersion(UUID gameId)
+    {
+        games.bumpVersion(gameId);
+    }
+
+    @Override
+    public List<GameEntity> getPage(GameEntity after, int limit, boolean withPlayers, boolean withCardsRemaining)
+    {
+        return games.getPage(after, limit, withPlayers, withCardsRemaining);
+    }
+
+    @Override
+    public List<CardDefinition> getShoeCards(UUID gameId)
+    {
+        return db.sql("""
+            SELECT d.card_def_id
+            FROM game g
+            CROSS JOIN generate_series(0, length(g.shoe) / 2 - g.shoe_cursor - 1) AS i
+            JOIN deck_card d ON d.id = %s
+            WHERE g.id = :gameId
+            ORDER BY i
+            """.formatted(CARD_AT))
+                .param("gameId", gameId)
+                .query((rs, rowNum) -> cards.get(rs.getShort("card_def_id")))
+                .list();
+    }
+
+    @Override
+    public Optional<ShoeSummary> getShoeSummary(UUID gameId)
+    {
+        return games.getShoeSummary(gameId);
+    }
+
+    @Override
+    public List<DeckCardEntity> popCardsFromShoe(UUID gameId, int count)
+    {
+        return db.sql("""
+            WITH %s
+            SELECT d.id, d.deck_id, d.card_def_id
+            FROM top t
+            JOIN deck_card d ON d.id = t.card_id
+            ORDER BY t.i
+            """.formatted(TOP))
+                .param("gameId", gameId)
+                .param("count", count)
+                .query((rs, rowNum) -> new DeckCardEntity(
+                        (UUID) rs.getObject("id"),
+                        (UUID) rs.getObject("deck_id"),
+                        ((Number) rs.getObject("card_def_id")).shortValue()
+                ))
+                .list();
+    }
+
+    @Override
+    public List<DeckCardEntity> dealCardsToPlayer(UUID gameId, UUID playerId, int count)
+    {
+        // Moves the cursor past the top N cards, updates the shoe summary and appends the cards to the hand.
+        return db.sql("""
+            WITH %s, last AS (
+                SELECT COALESCE(MAX(hand_order), 0) AS hand_order
+                FROM hand_card
+                WHERE player_id = :playerId
+            ), dealt AS (
+                INSERT INTO hand_card (player_id, card_id, hand_order)
+                SELECT :playerId, t.card_id, last.hand_order + t.i + 1
+                FROM top t
+                CROSS JOIN last
+                RETURNING card_id, hand_order
+            )
+            SELECT d.id, d.deck_id, d.card_def_id
+            FROM dealt
+            JOIN deck_card d ON d.id = dealt.card_id
+            ORDER BY dealt.hand_order
+            """.formatted(TOP))
+                .param("gameId", gameId)
+                .param("playerId", playerId)
+                .param("count", count)
+                .query((rs, rowNum) -> new DeckCardEntity(
+                        (UUID) rs.getObject("id"),
+                        (UUID) rs.getObject("deck_id"),
+                        ((Number) rs.getObject("card_def_id")).shortValue()
+                ))
+                .list();
+    }
+
+    @Override
+    public Map<UUID, List<DeckCardEntity>> dealRound(UUID gameId, Map<UUID, Integer> countsBySeat)
+    {
+        Map<UUID, List<DeckCardEntity>> dealt = new LinkedHashMap<>();
+        countsBySeat.keySet().forEach(playerId -> dealt.put(playerId, new ArrayList<>()));
+        if (countsBySeat.isEmpty())
+            return dealt;
+
+        // Same numbering as GameRepository.dealRound: turn n gets the card at cursor position n - 1
+        db.sql("""
+            WITH seats AS (
+                SELECT CAST(v.seat AS INTEGER) AS seat, CAST(v.player_id AS UUID) AS player_id, CAST(v.count AS INTEGER) AS count
+                FROM (VALUES :seats) AS v(seat, player_id, count)
+            ), turns AS (
+                SELECT s.player_id, row_number() OVER (ORDER BY pass, s.seat) AS position
+                FROM seats s
+                CROSS JOIN LATERAL generate_series(0, s.count - 1) AS pass
+            ), %s, last AS (
+                SELECT s.player_id, COALESCE(MAX(h.hand_order), 0) AS hand_order
+                FROM seats s
+                LEFT JOIN hand_card h ON h.player_id = s.player_id
+                GROUP BY s.player_id
+            ), dealt AS (
+                INSERT INTO hand_card (player_id, card_id, hand_order)
+                SELECT t.player_id, top.card_id, last.hand_order + row_number() OVER (PARTITION BY t.player_id ORDER BY t.position)
+                FROM turns t
+                JOIN top ON top.i + 1 = t.position
+                JOIN last ON last.player_id = t.player_id
+                RETURNING player_id, card_id, hand_order
+            )
+            SELECT dealt.player_id, d.id, d.deck_id, d.card_def_id
+            FROM dealt
+            JOIN deck_card d ON d.id = dealt.card_id
+            ORDER BY dealt.player_id, dealt.hand_order
+            """.formatted(TOP.replace(":count", "CAST((SELECT COUNT(*) FROM turns) AS INTEGER)")))
+                .param("gameId", gameId)
+                .param("seats", GameRepository.seatRows(countsBySeat))
+                .query(rs ->
+                {
+                    dealt.get((UUID) rs.getObject("player_id")).add(new DeckCardEntity(
+                            (UUID) rs.getObject("id"),
+                            (UUID) rs.getObject("deck_id"),
+                            ((Number) rs.getObject("card_def_id")).shortValue()));
+                });
+
+        return dealt;
+    }
+
+    @Override
+    public void pushbackCardToShoe(UUID gameId, UUID cardId) throws ShoeFullException
+    {
+        pushbackCardsToShoe(gameId, List.of(cardId));
+    }
+
+    @Override
+    @Transactional
+    public Optional<List<UUID>> pushbackCardsToShoe(UUID gameId, List<UUID> cardIds) throws ShoeFullException
+    {
+        if (cardIds == null || cardIds.isEmpty())
+            return doesGameExist(gameId) ? Optional.of(List.of()) : Optional.empty();
+
+        Packed packed = lock(gameId);
+        if (packed == null)
+            return Optional.empty();
+
+        Map<UUID, Short> definitions = new HashMap<>();
+        db.sql("SELECT id, card_def_id FROM deck_card WHERE id IN (:ids)")
+                .param("ids", cardIds)
+                .query(rs ->
+                {
+                    definitions.put((UUID) rs.getObject("id"), rs.getShort("card_def_id"));
+                });
+
+        Map<UUID, Integer> ordinals = new HashMap<>(packed.cardIds().size() * 2);
+        for (int i = 0; i < packed.cardIds().size(); i++)
+            ordinals.put(packed.cardIds().get(i), i);
+        Set<Integer> inShoe = new HashSet<>(packed.shoe());
+
+        // Cards already in the shoe are skipped, cards dealt earlier keep their ordinal
+        List<UUID> allCardIds = new ArrayList<>(packed.cardIds());
+        List<Integer> shoe = new ArrayList<>(packed.shoe());
+        Map<Short, Integer> added = new HashMap<>();
+        List<UUID> appended = new ArrayList<>(cardIds.size());
+        for (UUID cardId : cardIds)
+        {
+            Short definition = definitions.get(cardId);
+            Integer ordinal = ordinals.get(cardId);
+            if (definition == null || (ordinal != null && inShoe.contains(ordinal)))
+                continue;
+
+            if (ordinal == null)
+            {
+                // Nothing is written yet, the shoe stays as it was
+                if (allCardIds.size() == MAX_CARDS)
+                    throw new ShoeFullException(gameId, MAX_CARDS);
+                ordinal = allCardIds.size();
+                allCardIds.add(cardId);
+                ordinals.put(cardId, ordinal);
+            }
+            shoe.add(ordinal);
+            inShoe.add(ordinal);
+            added.merge(definition, 1, Integer::sum);
+            appended.add(cardId);
+        }
+
+        if (appended.isEmpty())
+            return Optional.of(appended);
+
+        write(gameId, packIds(allCardIds), shoe);
+
+        List<Object[]> rows = new ArrayList<>(added.size());
+        added.forEach((definition, count) -> rows.add(new Object[]{ definition, count }));
+        db.sql("""
+            INSERT INTO shoe_summary (game_id, card_def_id, remaining)
+            SELECT :gameId, CAST(v.card_def_id AS SMALLINT), v.remaining
+            FROM (VALUES :rows) AS v(card_def_id, remaining)
+            ON CONFLICT (game_id, card_def_id)
+            DO UPDATE SET remaining = shoe_summary.remaining + EXCLUDED.remaining
+            """)
+                .param("gameId", gameId)
+                .param("rows", rows)
+                .update();
+        return Optional.of(appended);
+    }
+
+    @Override
+    @Transactional
+    public boolean shuffleShoe(UUID gameId)
+    {
+        // Same permutation as GameRepository for SQL games, built as the new shoe value in place
+        Optional<ShuffleMode> mode = db.sql("""
+            WITH g AS (
+                SELECT shoe_card_ids, shoe, shoe_cursor, shuffle_mode, shuffle_seed # CAST(shuffle_count + 1 AS BIGINT) AS seed
+                FROM game
+                WHERE id = :gameId
+                FOR UPDATE
+            ), shuffled AS (
+                SELECT string_agg(substring(g.shoe FROM (g.shoe_cursor + i) * 2 + 1 FOR 2), ''::bytea
+                                  ORDER BY hashtextextended(CAST(c.card_id AS text), g.seed), c.card_id) AS shoe
+                FROM g
+                CROSS JOIN generate_series(0, length(g.shoe) / 2 - g.shoe_cursor - 1) AS i
+                CROSS JOIN LATERAL (SELECT %s AS card_id) c
+                WHERE g.shuffle_mode = 'SQL'
+            ), written AS (
+                UPDATE game
+                SET shoe = COALESCE(s.shoe, ''::bytea), shoe_cursor = 0, shuffle_count = shuffle_count + 1
+                FROM shuffled s
+                WHERE id = :gameId AND shuffle_mode = 'SQL'
+            )
+            SELECT shuffle_mode FROM g
+            """.formatted(CARD_AT))
+                .param("gameId", gameId)
+                .query(String.class)
+                .optional()
+                .map(ShuffleMode::valueOf);
+        if (mode.isEmpty())
+            return false;
+        if (mode.get() == ShuffleMode.SQL)
+            return true;
+
+        Packed packed = lock(gameId);
+        if (packed == null)
+            return false;
+        if (packed.shoe().size() <= 1)
+            return true;
+
+        // Shuffled in memory, then the remaining cards replace the whole shoe
+        List<Integer> shuffled = new ArrayList<>(packed.shoe());
+        random.shuffle(shuffled);
+
+        write(gameId, null, shuffled);
+        return true;
+    }
+
+    /**
+     * Every card id of the game and the undealt ordinals, top first.
+     */
+    private record Packed(List<UUID> cardIds, List<Integer> shoe) { }
+
+    /**
+     * Locks the game row and reads its shoe, or returns null when the game does not exist.
+     */
+    private Packed lock(UUID gameId)
+    {
+        return db.sql("""
+            SELECT shoe_card_ids, substring(shoe FROM shoe_cursor * 2 + 1) AS shoe
+            FROM game
+            WHERE id = :gameId
+            FOR UPDATE
+            """)
+                .param("gameId", gameId)
+                .query((rs, rowNum) -> new Packed(unpackIds(rs.getBytes("shoe_card_ids")), unpackOrdinals(rs.getBytes("shoe"))))
+                .optional()
+                .orElse(null);
+    }
+
+    /**
+     * Replaces the shoe with the given ordinals and resets the cursor. The card ids are only written when given.
+     */
+    private void write(UUID gameId, byte[] cardIds, List<Integer> shoe)
+    {
+        db.sql("""
+            UPDATE game
+            SET shoe_card_ids = COALESCE(:cardIds, shoe_card_ids), shoe = :shoe, shoe_cursor = 0
+            WHERE id = :gameId
+            """)
+                .param("gameId", gameId)
+                .param("cardIds", cardIds, java.sql.Types.BINARY)
+                .param("shoe", packOrdinals(shoe))
+                .update();
+    }
+
+    private static byte[] packIds(List<UUID> ids)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.size() * 16);
+        for (UUID id : ids)
+        {
+            buffer.putLong(id.getMostSignificantBits());
+            buffer.putLong(id.getLeastSignificantBits());
+        }
+        return buffer.array();
+    }
+
+    private static List<UUID> unpackIds(byte[] packed)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        List<UUID> ids = new ArrayList<>(packed.length / 16);
+        while (buffer.remaining() >= 16)
+            ids.add(new UUID(buffer.getLong(), buffer.getLong()));
+        return ids;
+    }
+
+    private static byte[] packOrdinals(List<Integer> ordinals)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(ordinals.size() * 2);
+        for (int ordinal : ordinals)
+            buffer.putShort((short) ordinal);
+        return buffer.array();
+    }
+
+    private static List<Integer> unpackOrdinals(byte[] packed)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(packed);
+        List<Integer> ordinals = new ArrayList<>(packed.length / 2);
+        while (buffer.remaining() >= 2)
+            ordinals.add(Short.toUnsignedInt(buffer.getShort()));
+        return ordinals;
+    }
+}
@@ -9,10 +9,12 @@ import java.util.*;
 public class PlayerRepository implements IPlayerRepository
 {
     private final JdbcClient db;
+    private final CardRegistry cards;
 
-    public PlayerRepository(JdbcClient db)
+    public PlayerRepository(JdbcClient db, CardRegistry cards)
     {
         this.db = db;
+        this.cards = cards;
     }
 
     @Override
@@ -32,11 +34,42 @@ public class PlayerRepository implements IPlayerRepository
     }
 
     @Override
-    public void removePlayerFromGame(UUID playerId)
+    public PlayerJoinEntity joinGame(UUID gameId, UUID userId)
     {
-        db.sql("DELETE FROM player WHERE id = :id")
+        return db.sql("""
+            WITH g AS (
+                SELECT id FROM game WHERE id = :gameId
+            ), u AS (
+                SELECT id, name FROM app_user WHERE id = :userId
+            ), inserted AS (
+                INSERT INTO player(id, game_id, user_id)
+                SELECT :id, g.id, u.id
+                FROM g CROSS JOIN u
+                ON CONFLICT (game_id, user_id) DO NOTHING
+                RETURNING id
+            )
+            SELECT EXISTS (SELECT 1 FROM g) AS game_exists,
+                   (SELECT name FROM u) AS user_name,
+                   (SELECT id FROM inserted) AS player_id
+            """)
+                .param("id", UUID.randomUUID())
+                .param("gameId", gameId)
+                .param("userId", userId)
+                .query((rs, rowNum) -> new PlayerJoinEntity(
+                        rs.getBoolean("game_exists"),
+                        rs.getString("user_name"),
+                        (UUID) rs.getObject("player_id")
+                ))
+                .single();
+    }
+
+    @Override
+    public Optional<UUID> removePlayerFromGame(UUID playerId)
+    {
+        return db.sql("DELETE FROM player WHERE id = :id RETURNING game_id")
                 .param("id", playerId)
-                .update();
+                .query(UUID.class)
+                .optional();
     }
 
     @Override
@@ -60,6 +93,31 @@ public class PlayerRepository implements IPlayerRepository
                 .list();
     }
 
+    @Override
+    public List<PlayerStandingEntity> getStandingsForGame(UUID gameId, Integer limit)
+    {
+        return db.sql("""
+            SELECT p.id, u.name AS user_name, COALESCE(SUM(def.rank), 0) AS total_value
+            FROM player p
+            JOIN app_user u ON u.id = p.user_id
+            LEFT JOIN hand_card h ON h.player_id = p.id
+            LEFT JOIN deck_card d ON d.id = h.card_id
+            LEFT JOIN card_definition def ON def.id = d.card_def_id
+            WHERE p.game_id = :gameId
+            GROUP BY p.id, u.name, p.added_at
+            ORDER BY total_value DESC, p.added_at
+            %s
+            """.formatted(limit == null ? "" : "LIMIT :limit"))
+                .param("gameId", gameId)
+                .param("limit", limit)
+                .query((rs, rowNum) -> new PlayerStandingEntity(
+                        (UUID) rs.getObject("id"),
+                        rs.getString("user_name"),
+                        rs.getInt("total_value")
+                ))
+                .list();
+    }
+
     @Override
     public boolean doesPlayerExist(UUID playerId)
     {
@@ -70,26 +128,75 @@ public class PlayerRepository implements IPlayerRepository
                 .isPresent();
     }
 
+    @Override
+    public Optional<UUID> getGameOfPlayer(UUID playerId)
+    {
+        return db.sql("SELECT game_id FROM player WHERE id = :id")
+                .param("id", playerId)
+                .query(UUID.class)
+                .optional();
+    }
+
+    @Override
+    public Optional<Long> getGameVersionOfPlayer(UUID playerId)
+    {
+        return db.sql("""
+            SELECT g.version
+            FROM player p
+            JOIN game g ON g.id = p.game_id
+            WHERE p.id = :id
+            """)
+                .param("id", playerId)
+                .query(Long.class)
+                .optional();
+    }
+
     @Override
     public List<CardDefinition> getHandForPlayer(UUID playerId)
     {
         return db.sql("""
-            SELECT def.id, def.suit, def.rank
+            SELECT d.card_def_id
             FROM hand_card h
             JOIN deck_card d ON d.id = h.card_id
-            JOIN card_definition def ON def.id = d.card_def_id
             WHERE h.player_id = :playerId
             ORDER BY h.hand_order
        """)
                 .param("playerId", playerId)
-                .query((rs, rowNum) -> new CardDefinition(
-                        rs.getShort("id"),
-                        Suit.fromShort(rs.getShort("suit")),
-                        Rank.fromShort(rs.getShort("rank"))
-                ))
+                .query((rs, rowNum) -> cards.get(rs.getShort("card_def_id")))
                 .list();
     }
 
+    @Override
+    public List<PlayerHandEntity> getHandsForGame(UUID gameId)
+    {
+        Map<UUID, PlayerHandEntity> hands = new LinkedHashMap<>();
+        db.sql("""
+            SELECT p.id AS player_id, u.name AS user_name, d.card_def_id
+            FROM player p
+            JOIN app_user u ON u.id = p.user_id
+            LEFT JOIN hand_card h ON h.player_id = p.id
+            LEFT JOIN deck_card d ON d.id = h.card_id
+            WHERE p.game_id = :gameId
+            ORDER BY p.added_at, p.id, h.hand_order
+            """)
+                .param("gameId", gameId)
+                .query(rs ->
+                {
+                    UUID playerId = (UUID) rs.getObject("player_id");
+                    PlayerHandEntity hand = hands.get(playerId);
+                    if (hand == null)
+                    {
+                        hand = new PlayerHandEntity(playerId, rs.getString("user_name"), new ArrayList<>());
+                        hands.put(playerId, hand);
+                    }
+                    Number cardDefId = (Number) rs.getObject("card_def_id");
+                    if (cardDefId != null)
+                        hand.cards().add(cards.get(cardDefId.shortValue()));
+                });
+
+        return new ArrayList<>(hands.values());
+    }
+
     @Override
     public void addCardsToPlayerHand(UUID playerId, List<DeckCardEntity> cards)
     {
@@ -0,0 +1,129 @@
+package com.deck.server.repositories;
+
+import com.deck.server.config.ShoeStorage;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+/**
+ * Moves every shoe to the storage this instance uses when shoe_storage_state says they are kept in the other one.
+ * Only one representation is written at a time, so after a switch of {@code deck.shoe.storage} the other one holds
+ * whatever it had when it was last in use and must be rebuilt before it is served.
+ * <p>
+ * Runs at startup in one transaction, holding the shoe_storage_state row so instances starting together convert once.
+ * The event log store keeps shoes in game_event and is left alone.
+ */
+@Component
+public class ShoeStorageSwitch
+{
+    private static final Logger log = LoggerFactory.getLogger(ShoeStorageSwitch.class);
+
+    private final JdbcClient db;
+    private final TransactionTemplate transaction;
+    private final ShoeStorage storage;
+    private final boolean eventLog;
+
+    public ShoeStorageSwitch(
+            JdbcClient db,
+            PlatformTransactionManager transactionManager,
+            @Value("${deck.shoe.storage:ROWS}") ShoeStorage storage,
+            @Value("${deck.engine.mode:DATABASE}") String engineMode,
+            @Value("${deck.engine.store:RELATIONAL}") String engineStore)
+    {
+        this.db = db;
+        this.transaction = new TransactionTemplate(transactionManager);
+        boolean memory = "MEMORY".equals(engineMode);
+        // Packed shoes only exist for the DATABASE engine mode, the relational store reads shoe_card
+        this.storage = memory ? ShoeStorage.ROWS : storage;
+        this.eventLog = memory && "EVENT_LOG".equals(engineStore);
+    }
+
+    @PostConstruct
+    public void switchIfNeeded()
+    {
+        if (eventLog)
+            return;
+
+        transaction.executeWithoutResult(status ->
+        {
+            ShoeStorage current = ShoeStorage.valueOf(db.sql("SELECT storage FROM shoe_storage_state FOR UPDATE")
+                    .query(String.class)
+                    .single());
+            if (current == storage)
+                return;
+
+            log.info("Moving shoes from {} to {} storage", current, storage);
+            if (storage == ShoeStorage.PACKED)
+                pack();
+            else
+                unpack();
+
+            db.sql("UPDATE shoe_storage_state SET storage = :storage")
+                    .param("storage", storage.name())
+                    .update();
+        });
+    }
+
+    /**
+     * Rebuilds every packed shoe from the shoe_card rows, in order_key order, then drops the rows.
+     */
+    private void pack()
+    {
+        db.sql("""
+            SELECT game_id
+            FROM shoe_card
+            GROUP BY game_id
+            HAVING COUNT(*) > :max
+            LIMIT 1
+            """)
+                .param("max", PackedShoeGameRepository.MAX_CARDS)
+                .query(UUID.class)
+                .optional()
+                .ifPresent(gameId ->
+                {
+                    throw new IllegalStateException("Game " + gameId + " has more than "
+                            + PackedShoeGameRepository.MAX_CARDS + " cards in its shoe and cannot be packed");
+                });
+
+        db.sql("UPDATE game SET shoe_card_ids = ''::bytea, shoe = ''::bytea, shoe_cursor = 0").update();
+        db.sql("""
+            WITH ordered AS (
+                SELECT game_id, card_id, row_number() OVER (PARTITION BY game_id ORDER BY order_key) - 1 AS ordinal
+                FROM shoe_card
+            ), packed AS (
+                SELECT game_id,
+                       string_agg(decode(replace(CAST(card_id AS text), '-', ''), 'hex'), ''::bytea ORDER BY ordinal) AS card_ids,
+                       string_agg(decode(lpad(to_hex(ordinal), 4, '0'), 'hex'), ''::bytea ORDER BY ordinal) AS shoe
+                FROM ordered
+                GROUP BY game_id
+            )
+            UPDATE game g
+            SET shoe_card_ids = p.card_ids, shoe = p.shoe
+            FROM packed p
+            WHERE g.id = p.game_id
+            """).update();
+        db.sql("DELETE FROM shoe_card").update();
+    }
+
+    /**
+     * Rebuilds the shoe_card rows from the undealt part of every packed shoe, then clears the packed columns.
+     */
+    private void unpack()
+    {
+        db.sql("DELETE FROM shoe_card").update();
+        db.sql("""
+            INSERT INTO shoe_card (game_id, card_id, order_key)
+            SELECT g.id, %s, i + 1
+            FROM game g
+            CROSS JOIN generate_series(0, length(g.shoe) / 2 - g.shoe_cursor - 1) AS i
+            """.formatted(PackedShoeGameRepository.CARD_AT)).update();
+        db.sql("UPDATE game SET shoe_card_ids = ''::bytea, shoe = ''::bytea, shoe_cursor = 0").update();
+    }
+}
@@ -39,6 +39,19 @@ public class UserRepository implements IUserRepository
                 .optional();
     }
 
+    @Override
+    public Optional<User> getUserById(UUID userId)
+    {
+        return db.sql("SELECT id, name, created_at FROM app_user WHERE id = :id")
+                .param("id", userId)
+                .query((rs, rowNum) -> new User(
+                        (UUID) rs.getObject("id"),
+                        rs.getString("name"),
+                        rs.getObject("created_at", java.time.OffsetDateTime.class)
+                ))
+                .optional();
+    }
+
     @Override
     public boolean doesUserExist(UUID userId)
     {
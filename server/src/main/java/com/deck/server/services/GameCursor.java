@@ -0,0 +1,54 @@
+package com.deck.server.services;
+
+import com.deck.server.entity.GameEntity;
+import com.deck.server.exceptions.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque page cursor for the game listing: the (created_at, id) of the last game of a page, as microseconds since the
+ * epoch (Postgres' timestamp precision) followed by the id, base64url encoded.
+ */
+final class GameCursor
+{
+    private static final int SIZE = Long.BYTES * 3;
+
+    private GameCursor()
+    {
+    }
+
+    static String encode(GameEntity game)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, game.createdAt().toInstant()));
+        buffer.putLong(game.id().getMostSignificantBits());
+        buffer.putLong(game.id().getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    static GameEntity decode(String cursor) throws InvalidCursorException
+    {
+        byte[] bytes;
+        try
+        {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            throw new InvalidCursorException(cursor);
+        }
+        if (bytes.length != SIZE)
+            throw new InvalidCursorException(cursor);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Instant createdAt = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        return new GameEntity(id, OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC));
+    }
+}
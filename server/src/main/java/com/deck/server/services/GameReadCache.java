@@ -0,0 +1,146 @@
+package com.deck.server.services;
+
+import com.deck.server.dto.CardDto;
+import com.deck.server.dto.PlayerDto;
+import com.deck.server.entity.ShoeSummary;
+import com.deck.server.events.GameEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the per-game read models: standings, shoe summaries and hands.
+ * <p>
+ * Every entry carries the game version it was loaded at. Callers pass the version they read, typically the one the
+ * response is tagged with, and an entry loaded at an older version is loaded again rather than served. The body is
+ * thereby never older than its ETag, even while the event of the change that bumped the version is still on its way.
+ * <p>
+ * Entries are also dropped by the {@link GameEvent} of the mutation that changed them, once its transaction commits,
+ * so stale ones do not linger. Each event only drops what it can change, a shuffle for instance changes none of them.
+ * Entries expire after {@code deck.read-cache.ttl} and the least used go past {@code deck.read-cache.maximum-size}
+ * per cache.
+ * <p>
+ * Hit, miss, load time and eviction counts are published as cache.* meters, tagged {@code cache=game.standings},
+ * {@code game.shoe-summary} and {@code game.hands}.
+ */
+@Component
+public class GameReadCache implements MeterBinder
+{
+    /** A player's hand, along with their game so it can be dropped when the game is deleted. */
+    record CachedHand(UUID gameId, List<CardDto> cards) { }
+
+    /** A cached value and the game version read before it was loaded. */
+    private record Versioned<V>(long version, V value) { }
+
+    private final Cache<UUID, Versioned<List<PlayerDto>>> standings;
+    private final Cache<UUID, Versioned<ShoeSummary>> shoeSummaries;
+    private final Cache<UUID, Versioned<CachedHand>> hands;
+
+    public GameReadCache(
+            @Value("${deck.read-cache.maximum-size:10000}") long maximumSize,
+            @Value("${deck.read-cache.ttl:5m}") Duration ttl)
+    {
+        this.standings = build(maximumSize, ttl);
+        this.shoeSummaries = build(maximumSize, ttl);
+        this.hands = build(maximumSize, ttl);
+    }
+
+    /**
+     * The cached standings of the game at {@code version} or later, loaded when missing or older.
+     * Nothing is cached when the loader returns null.
+     */
+    public List<PlayerDto> standings(UUID gameId, long version, Supplier<List<PlayerDto>> loader)
+    {
+        return current(standings, gameId, version, loader);
+    }
+
+    public ShoeSummary shoeSummary(UUID gameId, long version, Supplier<ShoeSummary> loader)
+    {
+        return current(shoeSummaries, gameId, version, loader);
+    }
+
+    CachedHand hand(UUID playerId, long version, Supplier<CachedHand> loader)
+    {
+        return current(hands, playerId, version, loader);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGameEvent(GameEvent event)
+    {
+        UUID gameId = event.gameId();
+        if (event instanceof GameEvent.CardsDealt dealt)
+        {
+            shoeSummaries.invalidate(gameId);
+            standings.invalidate(gameId);
+            hands.invalidate(dealt.playerId());
+        }
+        else if (event instanceof GameEvent.DeckAdded)
+        {
+            shoeSummaries.invalidate(gameId);
+        }
+        else if (event instanceof GameEvent.PlayerJoined)
+        {
+            standings.invalidate(gameId);
+        }
+        else if (event instanceof GameEvent.PlayerLeft left)
+        {
+            standings.invalidate(gameId);
+            hands.invalidate(left.playerId());
+        }
+        else if (event instanceof GameEvent.GameDeleted)
+        {
+            shoeSummaries.invalidate(gameId);
+            standings.invalidate(gameId);
+            hands.asMap().values().removeIf(hand -> hand.value().gameId().equals(gameId));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry)
+    {
+        CaffeineCacheMetrics.monitor(registry, standings, "game.standings");
+        CaffeineCacheMetrics.monitor(registry, shoeSummaries, "game.shoe-summary");
+        CaffeineCacheMetrics.monitor(registry, hands, "game.hands");
+    }
+
+    /**
+     * The entry of {@code key} unless it was loaded before {@code version}, in which case it is replaced by a new load.
+     * The loader runs after the caller read the version, so what it returns is at least that recent.
+     */
+    private static <V> V current(Cache<UUID, Versioned<V>> cache, UUID key, long version, Supplier<V> loader)
+    {
+        Versioned<V> entry = cache.get(key, k -> load(version, loader));
+        if (entry != null && entry.version() < version)
+        {
+            entry = cache.asMap().compute(key, (k, cached) ->
+                    cached != null && cached.version() >= version ? cached : load(version, loader));
+        }
+
+        return entry == null ? null : entry.value();
+    }
+
+    private static <V> Versioned<V> load(long version, Supplier<V> loader)
+    {
+        V value = loader.get();
+        return value == null ? null : new Versioned<>(version, value);
+    }
+
+    private static <V> Cache<UUID, V> build(long maximumSize, Duration ttl)
+    {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
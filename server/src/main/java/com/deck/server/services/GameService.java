@@ -1,17 +1,23 @@
 package com.deck.server.services;
 
+import com.deck.server.config.ShuffleMode;
 import com.deck.server.dto.CardCountDto;
+import com.deck.server.dto.CardDto;
 import com.deck.server.dto.GameDto;
+import com.deck.server.dto.GamePageDto;
+import com.deck.server.dto.GameSnapshotDto;
 import com.deck.server.entity.*;
+import com.deck.server.events.GameEvent;
 import com.deck.server.dto.PlayerDto;
 import com.deck.server.dto.SuitCountDto;
 import com.deck.server.exceptions.*;
 import com.deck.server.repositories.*;
 import jakarta.annotation.PostConstruct;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class GameService
@@ -20,19 +26,23 @@ public class GameService
     private final IDeckRepository deckRepository;
     private final IPlayerRepository playerRepository;
     private final IGameRepository gameRepository;
-    private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
+    private final GameReadCache readCache;
 
     public GameService(
             ICardRepository cardRepository,
             IDeckRepository deckRepository,
             IPlayerRepository playerRepository,
-            IGameRepository gameRepository, UserRepository userRepository)
+            IGameRepository gameRepository,
+            ApplicationEventPublisher events,
+            GameReadCache readCache)
     {
         this.cardRepository = cardRepository;
         this.deckRepository = deckRepository;
         this.playerRepository = playerRepository;
         this.gameRepository = gameRepository;
-        this.userRepository = userRepository;
+        this.events = events;
+        this.readCache = readCache;
     }
 
     @PostConstruct
@@ -41,142 +51,276 @@ public class GameService
         cardRepository.populateAll();
     }
 
-    public List<GameDto> getAllGames()
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_DECKS_PER_REQUEST = 64;
+    /** Cards per player per round, far more than any shoe holds. Bounds the turns a round numbers in SQL. */
+    public static final int MAX_DEAL_COUNT = 10_000;
+
+    /**
+     * One page of games, newest first, continuing from {@code cursor} (the previous page's next cursor) when set.
+     * {@code limit} defaults to {@link #DEFAULT_PAGE_SIZE} and is capped at {@link #MAX_PAGE_SIZE}.
+     */
+    public GamePageDto getGames(String cursor, Integer limit, boolean withPlayers, boolean withCardsRemaining)
+            throws CardsExceptionBase
     {
-        return gameRepository.getAll()
-                .stream()
-                .map(entity -> new GameDto(entity.id(), entity.createdAt()))
-                .toList();
+        if (limit != null && limit <= 0) throw new CountMustBePositiveException(limit);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        GameEntity after = cursor == null || cursor.isEmpty() ? null : GameCursor.decode(cursor);
+
+        // One extra row tells whether there is a next page without a count
+        List<GameEntity> rows = gameRepository.getPage(after, pageSize + 1, withPlayers, withCardsRemaining);
+        List<GameEntity> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String next = rows.size() > pageSize ? GameCursor.encode(page.getLast()) : null;
+
+        return new GamePageDto(
+                page.stream().map(entity -> new GameDto(entity.id(), entity.createdAt())).toList(),
+                next);
     }
 
 
     @Transactional
     public UUID createGame() throws CardsExceptionBase
     {
-        return gameRepository.createGame();
+        return createGame(null);
     }
 
+    /**
+     * Creates a game shuffled the given way, or the configured default way when {@code shuffleMode} is null.
+     */
     @Transactional
-    public void deleteGame(UUID gameId) throws GameDoesNotExistException
+    public UUID createGame(ShuffleMode shuffleMode) throws CardsExceptionBase
+    {
+        UUID gameId = shuffleMode == null ? gameRepository.createGame() : gameRepository.createGame(shuffleMode);
+        events.publishEvent(new GameEvent.GameCreated(gameId));
+        return gameId;
+    }
+
+    public void ensureGameExists(UUID gameId) throws GameDoesNotExistException
     {
         if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
+    }
 
-        gameRepository.deleteGame(gameId);
+    /**
+     * The game's state version. Every change made through this service bumps it in the same transaction, so reads
+     * can be skipped while it stays the same.
+     */
+    public long getGameVersion(UUID gameId) throws GameDoesNotExistException
+    {
+        return gameRepository.getVersion(gameId).orElseThrow(() -> new GameDoesNotExistException(gameId));
     }
 
     @Transactional
-    public UUID addPlayerToGame(UUID gameId, UUID userId) throws CardsExceptionBase
+    public void deleteGame(UUID gameId) throws GameDoesNotExistException
     {
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
-        if (!userRepository.doesUserExist(userId)) throw new UserDoesNotExistException(userId);
-
-       if (playerRepository
-               .getAllPlayersInGame(gameId).stream()
-               .anyMatch(p -> p.userId().equals(userId)))
-       {
-           throw new UserAlreadyInGameException(userId, gameId);
-       }
+        if (!gameRepository.deleteGame(gameId)) throw new GameDoesNotExistException(gameId);
+        events.publishEvent(new GameEvent.GameDeleted(gameId));
+    }
 
-        return playerRepository.addPlayerToGame(gameId, userId);
+    @Transactional
+    public UUID addPlayerToGame(UUID gameId, UUID userId) throws CardsExceptionBase
+    {
+        PlayerJoinEntity joined = playerRepository.joinGame(gameId, userId);
+        if (!joined.gameExists()) throw new GameDoesNotExistException(gameId);
+        if (joined.userName() == null) throw new UserDoesNotExistException(userId);
+        if (joined.playerId() == null) throw new UserAlreadyInGameException(userId, gameId);
+
+        gameRepository.bumpVersion(gameId);
+        events.publishEvent(new GameEvent.PlayerJoined(gameId, joined.playerId(), joined.userName()));
+        return joined.playerId();
     }
 
     @Transactional
     public void removePlayer(UUID playerId) throws PlayerDoesNotExistException
     {
-        if (!playerRepository.doesPlayerExist(playerId)) throw new PlayerDoesNotExistException(playerId);
-
-        playerRepository.removePlayerFromGame(playerId);
+        UUID gameId = playerRepository.removePlayerFromGame(playerId)
+                .orElseThrow(() -> new PlayerDoesNotExistException(playerId));
+        gameRepository.bumpVersion(gameId);
+        events.publishEvent(new GameEvent.PlayerLeft(gameId, playerId));
     }
 
     @Transactional
     public void dealCardsToPlayer(UUID gameId, UUID playerId, int count) throws CardsExceptionBase
     {
         if (count <= 0) throw new CountMustBePositiveException(count);
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
-
-        var cards = gameRepository.popCardsFromShoe(gameId, count);
-        if (cards.isEmpty()) return; // ok
 
-        playerRepository.addCardsToPlayerHand(playerId, cards);
+        List<DeckCardEntity> dealt = gameRepository.dealCardsToPlayer(gameId, playerId, count);
+        if (dealt.isEmpty())
+        {
+            // Empty shoe or no game at all, only the latter is an error
+            ensureGameExists(gameId);
+            return;
+        }
+        gameRepository.bumpVersion(gameId);
+        events.publishEvent(new GameEvent.CardsDealt(gameId, playerId, toCardDtos(dealt)));
     }
 
-    public List<PlayerDto> getPlayersInGame(UUID gameId) throws GameDoesNotExistException
+    /**
+     * Deals {@code count} cards to every player in the game, one card per seat per pass in join order.
+     */
+    @Transactional
+    public void dealRound(UUID gameId, int count) throws CardsExceptionBase
     {
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
+        if (count <= 0) throw new CountMustBePositiveException(count);
+        if (count > MAX_DEAL_COUNT) throw new CountTooLargeException(count, MAX_DEAL_COUNT);
 
-        var entities = playerRepository.getAllPlayersInGame(gameId);
-        List<PlayerDto> result = new ArrayList<>(entities.size());
+        Map<UUID, Integer> countsBySeat = new LinkedHashMap<>();
+        for (PlayerEntity player : playerRepository.getAllPlayersInGame(gameId))
+            countsBySeat.put(player.id(), count);
+        if (countsBySeat.isEmpty())
+            ensureGameExists(gameId);
 
-        for (PlayerEntity player : entities)
+        dealInSeatOrder(gameId, countsBySeat);
+    }
+
+    /**
+     * Deals each listed player their own count, round-robin in join order. Players left out get nothing.
+     * Every count must be set, positive and at most {@link #MAX_DEAL_COUNT}.
+     */
+    @Transactional
+    public void dealRound(UUID gameId, Map<UUID, Integer> counts) throws CardsExceptionBase
+    {
+        for (Map.Entry<UUID, Integer> entry : counts.entrySet())
         {
-            UUID playerId = player.id();
-            List<CardDefinition> hand = playerRepository.getHandForPlayer(playerId);
+            Integer count = entry.getValue();
+            if (count == null) throw new CountMustBePositiveException(entry.getKey());
+            if (count <= 0) throw new CountMustBePositiveException(count);
+            if (count > MAX_DEAL_COUNT) throw new CountTooLargeException(count, MAX_DEAL_COUNT);
+        }
 
-            int sum = 0;
-            for (CardDefinition card : hand)
-                sum += card.rank().toShort();
+        List<PlayerEntity> players = playerRepository.getAllPlayersInGame(gameId);
+        if (players.isEmpty())
+            ensureGameExists(gameId);
 
-            result.add(new PlayerDto(playerId, player.userName(), sum));
+        Map<UUID, Integer> countsBySeat = new LinkedHashMap<>();
+        for (PlayerEntity player : players)
+        {
+            if (counts.containsKey(player.id()))
+                countsBySeat.put(player.id(), counts.get(player.id()));
         }
+        for (UUID playerId : counts.keySet())
+            if (!countsBySeat.containsKey(playerId)) throw new PlayerDoesNotExistException(playerId);
 
-        // Sort descending by total value
-        result.sort(Comparator.comparingInt(PlayerDto::totalValue).reversed());
+        dealInSeatOrder(gameId, countsBySeat);
+    }
 
-        return result;
+    private void dealInSeatOrder(UUID gameId, Map<UUID, Integer> countsBySeat)
+    {
+        if (countsBySeat.isEmpty())
+            return;
+
+        Map<UUID, List<DeckCardEntity>> dealtBySeat = gameRepository.dealRound(gameId, countsBySeat);
+        if (dealtBySeat.values().stream().allMatch(List::isEmpty))
+            return;
+
+        gameRepository.bumpVersion(gameId);
+        dealtBySeat.forEach((playerId, dealt) ->
+        {
+            if (!dealt.isEmpty())
+                events.publishEvent(new GameEvent.CardsDealt(gameId, playerId, toCardDtos(dealt)));
+        });
     }
 
-    public List<SuitCountDto> getRemainingCardsBySuit(UUID gameId) throws GameDoesNotExistException
+    public List<PlayerDto> getPlayersInGame(UUID gameId) throws GameDoesNotExistException
     {
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
+        return getStandings(gameId, null, getGameVersion(gameId));
+    }
 
-        var cards = gameRepository.getShoeCards(gameId);
+    /**
+     * Same as {@link #getPlayersInGame(UUID)}, but only returns the top {@code limit} players when it is set.
+     */
+    public List<PlayerDto> getPlayersInGame(UUID gameId, Integer limit) throws CardsExceptionBase
+    {
+        if (limit != null && limit <= 0) throw new CountMustBePositiveException(limit);
+        return getStandings(gameId, limit, getGameVersion(gameId));
+    }
 
-        // Count per suit
-        EnumMap<Suit, Integer> counts = new EnumMap<>(Suit.class);
-        for (CardDefinition def : cards)
-            counts.merge(def.suit(), 1, Integer::sum);
+    /**
+     * Same as {@link #getPlayersInGame(UUID, Integer)}, as of {@code version} or later. For callers that already read
+     * the version to tag the response with, so the body is never older than the tag.
+     */
+    public List<PlayerDto> getPlayersInGame(UUID gameId, Integer limit, long version) throws CardsExceptionBase
+    {
+        if (limit != null && limit <= 0) throw new CountMustBePositiveException(limit);
+        return getStandings(gameId, limit, version);
+    }
 
-        // Build result including all suits, even those not present
-        List<SuitCountDto> result = new ArrayList<>(Suit.values().length);
-        for (Suit suit : Suit.values())
+    /**
+     * Players with the total value of their hand, highest first, from a single aggregate query.
+     * The game is only looked up when nobody is playing in it. The whole list is cached, limits are applied to it.
+     */
+    private List<PlayerDto> getStandings(UUID gameId, Integer limit, long version) throws GameDoesNotExistException
+    {
+        List<PlayerDto> standings = readCache.standings(gameId, version, () ->
         {
-            int count = counts.getOrDefault(suit, 0);
-            result.add(new SuitCountDto(suit.toString(), count));
-        }
+            List<PlayerStandingEntity> loaded = playerRepository.getStandingsForGame(gameId, null);
+            if (loaded.isEmpty() && !gameRepository.doesGameExist(gameId))
+                return null;
+
+            return loaded
+                    .stream()
+                    .map(standing -> new PlayerDto(standing.playerId(), standing.userName(), standing.totalValue()))
+                    .toList();
+        });
+        if (standings == null) throw new GameDoesNotExistException(gameId);
+
+        return limit == null || limit >= standings.size() ? standings : standings.subList(0, limit);
+    }
 
-        return result;
+    private ShoeSummary getShoeSummary(UUID gameId, long version) throws GameDoesNotExistException
+    {
+        ShoeSummary summary = readCache.shoeSummary(gameId, version, () -> gameRepository.getShoeSummary(gameId).orElse(null));
+        if (summary == null) throw new GameDoesNotExistException(gameId);
+        return summary;
+    }
+
+    public List<SuitCountDto> getRemainingCardsBySuit(UUID gameId) throws GameDoesNotExistException
+    {
+        return getRemainingCardsBySuit(gameId, getGameVersion(gameId));
+    }
+
+    /**
+     * Same as {@link #getRemainingCardsBySuit(UUID)}, as of {@code version} or later.
+     */
+    public List<SuitCountDto> getRemainingCardsBySuit(UUID gameId, long version) throws GameDoesNotExistException
+    {
+        return toSuitCounts(getShoeSummary(gameId, version));
     }
 
     public List<CardCountDto> getRemainingCardsBySuitAndRank(UUID gameId) throws GameDoesNotExistException
     {
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
+        return getRemainingCardsBySuitAndRank(gameId, getGameVersion(gameId));
+    }
+
+    /**
+     * Same as {@link #getRemainingCardsBySuitAndRank(UUID)}, as of {@code version} or later.
+     */
+    public List<CardCountDto> getRemainingCardsBySuitAndRank(UUID gameId, long version) throws GameDoesNotExistException
+    {
+        return toCardCounts(getShoeSummary(gameId, version));
+    }
 
-        var cards = gameRepository.getShoeCards(gameId);
+    private static List<SuitCountDto> toSuitCounts(ShoeSummary summary)
+    {
+        // Build result including all suits, even those not present
+        List<SuitCountDto> result = new ArrayList<>(Suit.values().length);
+        for (Suit suit : Suit.values())
+            result.add(new SuitCountDto(suit.toString(), summary.remaining(suit)));
 
-        // Count remaining cards grouped by (suit, rank)
-        Map<String, Long> counts = cards.stream()
-                .collect(Collectors.groupingBy(
-                        c -> c.suit().ordinal() + ":" + c.rank().ordinal(),
-                        Collectors.counting()
-                ));
+        return result;
+    }
 
-        // Build result with every suit/rank combination explicitly present
-        List<CardCountDto> result = new ArrayList<>(Suit.values().length * Rank.values().length);
+    private static List<CardCountDto> toCardCounts(ShoeSummary summary)
+    {
+        // Every suit/rank combination, sorted Hearts, Spades, Clubs, Diamonds then K → Q → J → 10 → ... → 2 → A
+        Rank[] ranks = Rank.values();
+        List<CardCountDto> result = new ArrayList<>(ShoeSummary.SIZE);
         for (Suit suit : Suit.values())
         {
-            for (Rank rank : Rank.values())
-            {
-                String key = suit.ordinal() + ":" + rank.ordinal();
-                int count = counts.getOrDefault(key, 0L).intValue();
-                result.add(new CardCountDto(suit.ordinal(), rank.ordinal(), count));
-            }
+            for (int r = ranks.length - 1; r >= 0; r--)
+                result.add(new CardCountDto(suit.ordinal(), ranks[r].ordinal(), summary.remaining(suit, ranks[r])));
         }
 
-        // Sort: Hearts, Spades, Clubs, Diamonds then K → Q → J → 10 → ... → 2 → A
-        result.sort(Comparator
-                .comparingInt(CardCountDto::suit)
-                .thenComparingInt(c -> 14 - c.rank()));
-
         return result;
     }
 
@@ -184,37 +328,111 @@ public class GameService
     public UUID createDeck(String name)
     {
         UUID deckId = deckRepository.createDeck(name);
-
-        for (var cardDefinition : cardRepository.getAll())
-            deckRepository.addCardToDeck(deckId, cardDefinition.id());
-
+        deckRepository.addAllCardsToDeck(deckId);
         return deckId;
     }
 
+    /**
+     * Creates {@code count} standard 52-card decks in a single statement, at most {@link #MAX_DECKS_PER_REQUEST}.
+     */
+    @Transactional
+    public List<UUID> createDecks(String name, int count) throws CardsExceptionBase
+    {
+        if (count <= 0) throw new CountMustBePositiveException(count);
+        if (count > MAX_DECKS_PER_REQUEST) throw new CountTooLargeException(count, MAX_DECKS_PER_REQUEST);
+        return deckRepository.createFullDecks(name, count);
+    }
+
 
     @Transactional
     public void addDeckToGame(UUID gameId, UUID deckId) throws CardsExceptionBase
     {
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
-        if (!deckRepository.doesDeckExist(deckId)) throw new DeckDoesNotExistException(deckId);
-
         var cards = deckRepository.getCardsInDeck(deckId);
-        if (cards.isEmpty()) throw new EmptyDeckException(deckId);
+        if (cards.isEmpty())
+        {
+            if (!deckRepository.doesDeckExist(deckId)) throw new DeckDoesNotExistException(deckId);
+            throw new EmptyDeckException(deckId);
+        }
 
-        for (DeckCardEntity card : cards)
-            gameRepository.pushbackCardToShoe(gameId, card.id());
+        Set<UUID> appended = new HashSet<>(gameRepository
+                .pushbackCardsToShoe(gameId, cards.stream().map(DeckCardEntity::id).toList())
+                .orElseThrow(() -> new GameDoesNotExistException(gameId)));
+
+        // Cards of the deck already in the shoe were skipped, nothing changed for them
+        if (appended.isEmpty())
+            return;
+        gameRepository.bumpVersion(gameId);
+        events.publishEvent(new GameEvent.DeckAdded(gameId, deckId,
+                toCardDtos(cards.stream().filter(card -> appended.contains(card.id())).toList())));
+    }
+
+    /**
+     * Every player's hand keyed by player id, players in join order and cards in hand order.
+     * The game is only looked up when nobody is playing in it.
+     */
+    public Map<UUID, List<CardDto>> getHandsInGame(UUID gameId) throws GameDoesNotExistException
+    {
+        List<PlayerHandEntity> hands = playerRepository.getHandsForGame(gameId);
+        if (hands.isEmpty())
+            ensureGameExists(gameId);
+
+        return toHandDtos(hands);
+    }
+
+    /**
+     * Players, hands and remaining counts of a game in three statements (version, hands, shoe summary) run in one
+     * read-only repeatable-read transaction, so they all describe the same state. Standings are summed from the
+     * hands rather than queried, and nothing is served from the read cache, which is not tied to that state.
+     * <p>
+     * In the MEMORY engine mode the three are read from the game state one after the other, outside of any database
+     * transaction, so a change landing in between shows in the later parts only. The version is read first and is
+     * then never newer than the rest.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public GameSnapshotDto getSnapshot(UUID gameId) throws GameDoesNotExistException
+    {
+        long version = getGameVersion(gameId);
+        List<PlayerHandEntity> hands = playerRepository.getHandsForGame(gameId);
+        ShoeSummary summary = gameRepository.getShoeSummary(gameId)
+                .orElseThrow(() -> new GameDoesNotExistException(gameId));
+
+        // Stable, so players with the same total stay in join order like in the standings query
+        List<PlayerDto> players = new ArrayList<>(hands.size());
+        for (PlayerHandEntity hand : hands)
+            players.add(new PlayerDto(hand.playerId(), hand.userName(), hand.totalValue()));
+        players.sort(Comparator.comparingInt(PlayerDto::totalValue).reversed());
+
+        return new GameSnapshotDto(version, players, toHandDtos(hands), toSuitCounts(summary), toCardCounts(summary));
     }
 
     public List<CardDefinition> getPlayerHand(UUID playerId) throws CardsExceptionBase
     {
-        if (!playerRepository.doesPlayerExist(playerId)) throw new PlayerDoesNotExistException(playerId);
-        return playerRepository.getHandForPlayer(playerId);
+        List<CardDefinition> hand = playerRepository.getHandForPlayer(playerId);
+        if (hand.isEmpty() && !playerRepository.doesPlayerExist(playerId)) throw new PlayerDoesNotExistException(playerId);
+        return hand;
     }
 
     @Transactional
     public void shuffleShoeForGame(UUID gameId) throws GameDoesNotExistException
     {
-        if (!gameRepository.doesGameExist(gameId)) throw new GameDoesNotExistException(gameId);
-        gameRepository.shuffleShoe(gameId);
+        if (!gameRepository.shuffleShoe(gameId)) throw new GameDoesNotExistException(gameId);
+        gameRepository.bumpVersion(gameId);
+        events.publishEvent(new GameEvent.ShoeShuffled(gameId));
+    }
+
+    private static Map<UUID, List<CardDto>> toHandDtos(List<PlayerHandEntity> hands)
+    {
+        Map<UUID, List<CardDto>> result = new LinkedHashMap<>();
+        for (PlayerHandEntity hand : hands)
+            result.put(hand.playerId(), hand.cards().stream().map(CardDto::fromDefinition).toList());
+        return result;
+    }
+
+    private List<CardDto> toCardDtos(List<DeckCardEntity> cards)
+    {
+        return cardRepository.getManyById(cards.stream().map(DeckCardEntity::card_def_id).toList())
+                .stream()
+                .map(CardDto::fromDefinition)
+                .toList();
     }
 }
@@ -16,11 +16,13 @@ public class PlayerService
 {
     private final IPlayerRepository playerRepository;
     private final IUserRepository userRepository;
+    private final GameReadCache readCache;
 
-    public PlayerService(IPlayerRepository playerRepository, IUserRepository userRepository)
+    public PlayerService(IPlayerRepository playerRepository, IUserRepository userRepository, GameReadCache readCache)
     {
         this.playerRepository = playerRepository;
         this.userRepository = userRepository;
+        this.readCache = readCache;
     }
 
     /**
@@ -37,13 +39,33 @@ public class PlayerService
         return userRepository.createUser(name, id);
     }
 
+    /**
+     * State version of the player's game, which also covers their hand.
+     */
+    public long getHandVersion(UUID playerId) throws PlayerDoesNotExistException
+    {
+        return playerRepository.getGameVersionOfPlayer(playerId).orElseThrow(() -> new PlayerDoesNotExistException(playerId));
+    }
+
     public List<CardDto> getCardsForPlayer(UUID playerId) throws PlayerDoesNotExistException
     {
-        if (!playerRepository.doesPlayerExist(playerId)) throw new PlayerDoesNotExistException(playerId);
+        return getCardsForPlayer(playerId, getHandVersion(playerId));
+    }
+
+    /**
+     * Same as {@link #getCardsForPlayer(UUID)}, as of the game version {@code version} or later. For callers that
+     * already read the version to tag the response with, so the body is never older than the tag.
+     */
+    public List<CardDto> getCardsForPlayer(UUID playerId, long version) throws PlayerDoesNotExistException
+    {
+        GameReadCache.CachedHand hand = readCache.hand(playerId, version, () -> playerRepository.getGameOfPlayer(playerId)
+                .map(gameId -> new GameReadCache.CachedHand(gameId, playerRepository.getHandForPlayer(playerId)
+                        .stream()
+                        .map(CardDto::fromDefinition)
+                        .toList()))
+                .orElse(null));
+        if (hand == null) throw new PlayerDoesNotExistException(playerId);
 
-        return playerRepository.getHandForPlayer(playerId)
-                .stream()
-                .map(CardDto::fromDefinition)
-                .toList();
+        return hand.cards();
     }
 }
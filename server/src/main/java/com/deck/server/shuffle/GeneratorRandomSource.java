@@ -0,0 +1,25 @@
+package com.deck.server.shuffle;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * One generator of the given {@link RandomGeneratorFactory} algorithm per thread, such as {@code L64X128MixRandom}
+ * or {@code SplittableRandom}. Fast and statistically strong, but not cryptographically secure.
+ */
+public final class GeneratorRandomSource implements ShuffleRandomSource
+{
+    private final ThreadLocal<RandomGenerator> generators;
+
+    public GeneratorRandomSource(String algorithm)
+    {
+        RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.of(algorithm);
+        this.generators = ThreadLocal.withInitial(factory::create);
+    }
+
+    @Override
+    public long nextLong()
+    {
+        return generators.get().nextLong();
+    }
+}
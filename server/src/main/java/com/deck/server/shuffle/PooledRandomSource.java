@@ -0,0 +1,107 @@
+package com.deck.server.shuffle;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves random words generated ahead of time by a {@link SecureRandom}, so shuffles do not pay for it.
+ * <p>
+ * Threads are spread over a fixed number of stripes by thread id, which keeps the pool bounded when requests run on
+ * virtual threads. Each stripe holds an active buffer and a spare one. When the active buffer runs out it is swapped
+ * with the spare and handed to a background thread to be refilled. Only when the spare is not back yet does the caller
+ * refill a buffer itself.
+ */
+public final class PooledRandomSource implements ShuffleRandomSource, AutoCloseable
+{
+    private final SecureRandom random;
+    private final Stripe[] stripes;
+    private final ExecutorService refiller;
+
+    public PooledRandomSource(SecureRandom random, int stripeCount, int wordsPerBuffer)
+    {
+        if (stripeCount <= 0 || wordsPerBuffer <= 0)
+            throw new IllegalArgumentException("stripeCount and wordsPerBuffer must be positive");
+
+        this.random = random;
+
+        // A power of two, so a thread's stripe is its id masked
+        int size = 1;
+        while (size < stripeCount)
+            size <<= 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = new Stripe(fill(new long[wordsPerBuffer]), fill(new long[wordsPerBuffer]));
+
+        this.refiller = Executors.newSingleThreadExecutor(r ->
+        {
+            Thread t = new Thread(r, "shuffle-random-refill");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public long nextLong()
+    {
+        Stripe stripe = stripes[(int) (Thread.currentThread().threadId() & (stripes.length - 1))];
+        stripe.lock.lock();
+        try
+        {
+            if (stripe.next == stripe.active.length)
+            {
+                long[] spare = stripe.spare;
+                if (spare == null)
+                {
+                    // Background refill still running, do this one in place
+                    fill(stripe.active);
+                }
+                else
+                {
+                    long[] used = stripe.active;
+                    stripe.active = spare;
+                    stripe.spare = null;
+                    refiller.execute(() -> stripe.spare = fill(used));
+                }
+                stripe.next = 0;
+            }
+            return stripe.active[stripe.next++];
+        }
+        finally
+        {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException
+    {
+        refiller.shutdown();
+        refiller.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    private long[] fill(long[] words)
+    {
+        byte[] bytes = new byte[words.length * Long.BYTES];
+        random.nextBytes(bytes);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(words);
+        return words;
+    }
+
+    private static final class Stripe
+    {
+        final ReentrantLock lock = new ReentrantLock();
+        long[] active;
+        int next;
+        volatile long[] spare;
+
+        Stripe(long[] active, long[] spare)
+        {
+            this.active = active;
+            this.spare = spare;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.deck.server.shuffle;
+
+import java.security.SecureRandom;
+
+/**
+ * Draws every value from a single shared {@link SecureRandom}, on the request path.
+ */
+public final class SecureRandomSource implements ShuffleRandomSource
+{
+    private final SecureRandom random;
+
+    public SecureRandomSource(SecureRandom random)
+    {
+        this.random = random;
+    }
+
+    @Override
+    public long nextLong()
+    {
+        return random.nextLong();
+    }
+}
@@ -0,0 +1,21 @@
+package com.deck.server.shuffle;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomness used to shuffle shoes. Implementations must be safe to call from any number of threads at once;
+ * everything else, including unbiased bounded ints, comes from {@link RandomGenerator}.
+ */
+public interface ShuffleRandomSource extends RandomGenerator
+{
+    /**
+     * Fisher–Yates over the whole list, in place.
+     */
+    default <T> void shuffle(List<T> list)
+    {
+        for (int i = list.size() - 1; i > 0; i--)
+            Collections.swap(list, i, nextInt(i + 1));
+    }
+}
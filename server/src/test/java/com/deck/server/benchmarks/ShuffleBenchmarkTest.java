@@ -0,0 +1,76 @@
+package com.deck.server.benchmarks;
+
+import com.deck.server.exceptions.CardsExceptionBase;
+import com.deck.server.repositories.CardRepository;
+import com.deck.server.repositories.GameRepository;
+import com.deck.server.services.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures shuffle latency against shoe size. Excluded from the regular test run, use `./gradlew benchmark`.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@Tag("benchmark")
+class ShuffleBenchmarkTest
+{
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 30;
+
+    @Autowired private GameService service;
+    @Autowired private GameRepository games;
+    @Autowired private CardRepository cards;
+
+    @BeforeEach
+    void setup()
+    {
+        cards.populateAll();
+    }
+
+    @ParameterizedTest(name = "{0} deck(s)")
+    @ValueSource(ints = { 1, 2, 6, 8 })
+    void shuffleLatencyBySize(int deckCount) throws CardsExceptionBase
+    {
+        UUID gameId = service.createGame();
+        for (int i = 0; i < deckCount; i++)
+            service.addDeckToGame(gameId, service.createDeck("Benchmark deck " + i));
+
+        int shoeSize = games.getShoeCards(gameId).size();
+        assertThat(shoeSize).isEqualTo(deckCount * 52);
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            service.shuffleShoeForGame(gameId);
+
+        long[] samples = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+        {
+            long start = System.nanoTime();
+            service.shuffleShoeForGame(gameId);
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        double mean = Arrays.stream(samples).average().orElse(0) / 1_000_000.0;
+        System.out.printf("shuffle %4d cards: mean %.3f ms, p50 %.3f ms, p95 %.3f ms, max %.3f ms%n",
+                shoeSize,
+                mean,
+                samples[samples.length / 2] / 1_000_000.0,
+                samples[(int) (samples.length * 0.95)] / 1_000_000.0,
+                samples[samples.length - 1] / 1_000_000.0);
+
+        assertThat(games.getShoeCards(gameId)).hasSize(shoeSize);
+    }
+}
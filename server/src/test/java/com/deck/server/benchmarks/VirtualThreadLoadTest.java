@@ -0,0 +1,189 @@
+package com.deck.server.benchmarks;
+
+import com.deck.server.exceptions.CardsExceptionBase;
+import com.deck.server.repositories.CardRepository;
+import com.deck.server.repositories.UserRepository;
+import com.deck.server.services.GameService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires far more concurrent requests than Tomcat has platform threads (200 by default) at a server running on
+ * virtual threads, and checks that they are all in flight at once rather than queued, and that no virtual thread
+ * got pinned inside the JDBC driver or the connection pool while doing so.
+ * Excluded from the regular test run, use `./gradlew benchmark`.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+@Tag("benchmark")
+class VirtualThreadLoadTest
+{
+    private static final int PLATFORM_THREAD_LIMIT = 200;
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    @TestConfiguration
+    static class InFlightCounter
+    {
+        static final AtomicInteger inFlight = new AtomicInteger();
+        static final AtomicInteger peak = new AtomicInteger();
+
+        @Bean
+        OncePerRequestFilter inFlightFilter()
+        {
+            return new OncePerRequestFilter()
+            {
+                @Override
+                protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                        throws ServletException, IOException
+                {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try
+                    {
+                        chain.doFilter(request, response);
+                    }
+                    finally
+                    {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+
+    @LocalServerPort private int port;
+    @Autowired private GameService service;
+    @Autowired private CardRepository cards;
+    @Autowired private UserRepository users;
+
+    private UUID gameId;
+    private final List<UUID> userIds = new ArrayList<>();
+
+    @BeforeEach
+    void setup() throws CardsExceptionBase
+    {
+        cards.populateAll();
+        gameId = service.createGame();
+        for (UUID deckId : service.createDecks("Load test", 6))
+            service.addDeckToGame(gameId, deckId);
+        for (int i = 0; i < 8; i++)
+        {
+            UUID userId = users.createUser("load-" + UUID.randomUUID(), UUID.randomUUID());
+            userIds.add(userId);
+            service.dealCardsToPlayer(gameId, service.addPlayerToGame(gameId, userId), 5);
+        }
+    }
+
+    @AfterEach
+    void teardown() throws CardsExceptionBase
+    {
+        service.deleteGame(gameId);
+        userIds.forEach(users::deleteUser);
+    }
+
+    @Test
+    void requestsScalePastThePlatformThreadLimitWithoutPinning() throws Exception
+    {
+        List<String> pinnedInJdbc = Collections.synchronizedList(new ArrayList<>());
+        try (RecordingStream pins = new RecordingStream();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            pins.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            pins.onEvent("jdk.VirtualThreadPinned", event ->
+            {
+                if (event.getStackTrace() == null)
+                    return;
+                for (RecordedFrame frame : event.getStackTrace().getFrames())
+                {
+                    String type = frame.getMethod().getType().getName();
+                    if (type.startsWith("org.postgresql") || type.startsWith("com.zaxxer.hikari"))
+                    {
+                        pinnedInJdbc.add(type + "." + frame.getMethod().getName());
+                        return;
+                    }
+                }
+            });
+            pins.startAsync();
+
+            HttpClient http = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clients)
+                    .build();
+            List<URI> endpoints = List.of(
+                    URI.create("http://localhost:" + port + "/games/" + gameId + "/players"),
+                    URI.create("http://localhost:" + port + "/games/" + gameId + "/remaining-by-suit"),
+                    URI.create("http://localhost:" + port + "/games/" + gameId + "/remaining-by-suit-rank"));
+
+            InFlightCounter.peak.set(0);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++)
+            {
+                int client = c;
+                results.add(clients.submit(() ->
+                {
+                    start.await();
+                    long[] latencies = new long[REQUESTS_PER_CLIENT];
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++)
+                    {
+                        HttpRequest request = HttpRequest.newBuilder(endpoints.get((client + r) % endpoints.size())).GET().build();
+                        long begin = System.nanoTime();
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[r] = System.nanoTime() - begin;
+                        assertThat(response.statusCode()).isEqualTo(200);
+                    }
+                    return latencies;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            long[] all = new long[CLIENTS * REQUESTS_PER_CLIENT];
+            int i = 0;
+            for (Future<long[]> result : results)
+                for (long latency : result.get(2, TimeUnit.MINUTES))
+                    all[i++] = latency;
+            long elapsed = System.nanoTime() - begin;
+            pins.stop();
+
+            Arrays.sort(all);
+            System.out.printf("%d requests from %d clients in %.0f ms (%.0f req/s), peak in flight %d, p50 %.1f ms, p99 %.1f ms%n",
+                    all.length, CLIENTS, elapsed / 1_000_000.0, all.length / (elapsed / 1_000_000_000.0),
+                    InFlightCounter.peak.get(),
+                    all[all.length / 2] / 1_000_000.0,
+                    all[(int) (all.length * 0.99)] / 1_000_000.0);
+        }
+
+        assertThat(InFlightCounter.peak.get()).isGreaterThan(PLATFORM_THREAD_LIMIT);
+        assertThat(pinnedInJdbc).isEmpty();
+    }
+}
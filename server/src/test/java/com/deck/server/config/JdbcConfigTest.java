@@ -0,0 +1,51 @@
+package com.deck.server.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "deck.jdbc.pool-size=7",
+        "deck.jdbc.connection-timeout=2s",
+        "deck.jdbc.prepare-threshold=0",
+        "deck.jdbc.re-write-batched-inserts=false"
+})
+@ActiveProfiles("test")
+class JdbcConfigTest
+{
+    @Autowired private DataSource dataSource;
+    @Autowired private JdbcClient db;
+    @Autowired private MeterRegistry meters;
+
+    @Test
+    void poolIsConfiguredFromProperties()
+    {
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(hikari.getMinimumIdle()).isEqualTo(1);
+        assertThat(hikari.getConnectionTimeout()).isEqualTo(2000);
+        assertThat(hikari.getDataSourceProperties())
+                .containsEntry("prepareThreshold", 0)
+                .containsEntry("reWriteBatchedInserts", false)
+                .containsEntry("preparedStatementCacheQueries", 256);
+    }
+
+    @Test
+    void poolMetricsArePublished()
+    {
+        db.sql("SELECT 1").query(Integer.class).single();
+
+        for (String gauge : new String[]{ "active", "idle", "pending", "max" })
+            assertThat(meters.find("hikaricp.connections." + gauge).tag("pool", JdbcConfig.POOL_NAME).gauge()).isNotNull();
+        assertThat(meters.get("hikaricp.connections.acquire").tag("pool", JdbcConfig.POOL_NAME).timer().count()).isPositive();
+    }
+}
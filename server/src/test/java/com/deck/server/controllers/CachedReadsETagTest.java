@@ -0,0 +1,106 @@
+package com.deck.server.controllers;
+
+import com.deck.server.repositories.IGameRepository;
+import com.deck.server.repositories.IPlayerRepository;
+import com.deck.server.repositories.UserRepository;
+import com.deck.server.services.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Cached reads are served with the ETag of a version they are at least as recent as, so a client never keeps an old
+ * body under a newer tag. Not transactional: the changes have to commit for the cache to see them, so each test
+ * cleans up after itself.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CachedReadsETagTest
+{
+    @Autowired private MockMvc mvc;
+    @Autowired private GameService service;
+    @Autowired private IGameRepository games;
+    @Autowired private IPlayerRepository players;
+    @Autowired private UserRepository users;
+
+    private final List<UUID> userIds = new ArrayList<>();
+    private UUID gameId;
+
+    @BeforeEach
+    void setup() throws Exception
+    {
+        gameId = service.createGame();
+        service.addPlayerToGame(gameId, newUser());
+    }
+
+    @AfterEach
+    void cleanup() throws Exception
+    {
+        service.deleteGame(gameId);
+        for (UUID userId : userIds)
+            users.deleteUser(userId);
+    }
+
+    @Test
+    void bodyAfterAChangeMatchesItsETag() throws Exception
+    {
+        String before = getPlayers(1).getResponse().getHeader(HttpHeaders.ETAG);
+
+        service.addPlayerToGame(gameId, newUser());
+
+        MvcResult after = getPlayers(2);
+        String etag = after.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotEqualTo(before).isEqualTo(ETags.of(service.getGameVersion(gameId)));
+        mvc.perform(get("/games/{gameId}/players", gameId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void bodyIsReloadedWhenTheVersionMovedBeforeTheCacheWasDropped() throws Exception
+    {
+        getPlayers(1);
+
+        // Changed without the event that drops the cached standings, like a read landing before it is delivered
+        players.addPlayerToGame(gameId, newUser());
+        games.bumpVersion(gameId);
+
+        String etag = getPlayers(2).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo(ETags.of(service.getGameVersion(gameId)));
+        mvc.perform(get("/games/{gameId}/players", gameId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    private MvcResult getPlayers(int expected) throws Exception
+    {
+        return mvc.perform(get("/games/{gameId}/players", gameId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.length()").value(expected))
+                .andReturn();
+    }
+
+    private UUID newUser()
+    {
+        UUID userId = users.createUser("etag-" + UUID.randomUUID(), UUID.randomUUID());
+        userIds.add(userId);
+        return userId;
+    }
+}
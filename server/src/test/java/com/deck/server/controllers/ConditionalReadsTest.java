@@ -0,0 +1,80 @@
+package com.deck.server.controllers;
+
+import com.deck.server.dto.GameSnapshotDto;
+import com.deck.server.events.GameEventStream;
+import com.deck.server.services.GameService;
+import com.deck.server.services.PlayerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The read endpoints answer a still-matching If-None-Match from the game version alone, without reading anything
+ * else of the game.
+ */
+@WebMvcTest({ GameController.class, PlayerController.class })
+class ConditionalReadsTest
+{
+    @Autowired private MockMvc mvc;
+    @MockitoBean private GameService gameService;
+    @MockitoBean private PlayerService playerService;
+    @MockitoBean private GameEventStream eventStream;
+
+    private final UUID gameId = UUID.randomUUID();
+    private final UUID playerId = UUID.randomUUID();
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithoutTheReadQueries() throws Exception
+    {
+        when(gameService.getGameVersion(gameId)).thenReturn(3L);
+        when(playerService.getHandVersion(playerId)).thenReturn(3L);
+
+        for (String read : List.of("players", "hands", "remaining-by-suit", "remaining-by-suit-rank", "snapshot"))
+        {
+            mvc.perform(get("/games/{gameId}/" + read, gameId).header(HttpHeaders.IF_NONE_MATCH, ETags.of(3)))
+                    .andExpect(status().isNotModified());
+        }
+        mvc.perform(get("/players/{playerId}/hand", playerId).header(HttpHeaders.IF_NONE_MATCH, ETags.of(3)))
+                .andExpect(status().isNotModified());
+
+        verify(gameService, times(5)).getGameVersion(gameId);
+        verify(playerService).getHandVersion(playerId);
+        verifyNoMoreInteractions(gameService, playerService);
+    }
+
+    @Test
+    void staleIfNoneMatchGetsTheBodyAndTheCurrentETag() throws Exception
+    {
+        when(gameService.getGameVersion(gameId)).thenReturn(4L);
+        when(gameService.getPlayersInGame(gameId, null, 4L)).thenReturn(List.of());
+
+        mvc.perform(get("/games/{gameId}/players", gameId).header(HttpHeaders.IF_NONE_MATCH, ETags.of(3)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETags.of(4)));
+        verify(gameService).getPlayersInGame(gameId, null, 4L);
+    }
+
+    @Test
+    void snapshotIsTaggedWithTheVersionItWasReadAt() throws Exception
+    {
+        // A change committed between the version check and the snapshot
+        when(gameService.getGameVersion(gameId)).thenReturn(4L);
+        when(gameService.getSnapshot(gameId)).thenReturn(new GameSnapshotDto(5L, List.of(), Map.of(), List.of(), List.of()));
+
+        mvc.perform(get("/games/{gameId}/snapshot", gameId).header(HttpHeaders.IF_NONE_MATCH, ETags.of(3)))
+                .andExpect(status().isOk())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, ETags.of(5)));
+    }
+}
@@ -0,0 +1,152 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.exceptions.CardsExceptionBase;
+import com.deck.server.exceptions.FilterNotSupportedException;
+import com.deck.server.repositories.CardRepository;
+import com.deck.server.repositories.IPlayerRepository;
+import com.deck.server.repositories.UserRepository;
+import com.deck.server.services.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "deck.engine.mode=MEMORY",
+        "deck.engine.store=EVENT_LOG",
+        "deck.engine.snapshot-every=3",
+        "deck.engine.flush-interval=1h"
+})
+@ActiveProfiles("test")
+@Transactional
+class EventLogGameStateStoreTest
+{
+    @Autowired private GameService service;
+    @Autowired private GameEngine engine;
+    @Autowired private EventLogGameStateStore store;
+    @Autowired private IPlayerRepository players;
+    @Autowired private CardRepository cards;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcClient db;
+
+    private UUID gameId;
+    private UUID playerId;
+
+    @BeforeEach
+    void setup() throws CardsExceptionBase
+    {
+        cards.populateAll();
+        gameId = service.createGame();
+        UUID deckId = service.createDeck("Event log deck");
+        UUID userId = users.createUser("event-log-" + UUID.randomUUID(), UUID.randomUUID());
+        playerId = service.addPlayerToGame(gameId, userId);
+        service.addDeckToGame(gameId, deckId);
+    }
+
+    @Test
+    void changesAreAppendedAndTheGameIsRebuiltFromSnapshotAndTail() throws CardsExceptionBase
+    {
+        service.dealCardsToPlayer(gameId, playerId, 3);
+        service.shuffleShoeForGame(gameId);
+        service.dealCardsToPlayer(gameId, playerId, 2);
+        engine.flushAll();
+
+        List<DeckCardEntity> shoe = engine.getShoe(gameId).orElseThrow();
+        List<CardDefinition> hand = service.getPlayerHand(playerId);
+
+        // Appended, dealt, reordered, dealt: the batch crossed a multiple of 3, so a snapshot was taken
+        assertThat(count("SELECT COUNT(*) FROM game_event WHERE game_id = :gameId")).isEqualTo(4);
+        assertThat(count("SELECT seq FROM game_snapshot WHERE game_id = :gameId")).isEqualTo(4);
+        assertThat(count("SELECT COUNT(*) FROM shoe_card WHERE game_id = :gameId")).isZero();
+
+        service.dealCardsToPlayer(gameId, playerId, 1);
+        engine.flushAll();
+        List<DeckCardEntity> shoeAfterTail = engine.getShoe(gameId).orElseThrow();
+
+        engine.discard(gameId);
+
+        assertThat(engine.getShoe(gameId).orElseThrow()).containsExactlyElementsOf(shoeAfterTail);
+        assertThat(service.getPlayerHand(playerId)).hasSize(6).startsWith(hand.toArray(CardDefinition[]::new));
+        assertThat(shoeAfterTail).containsExactlyElementsOf(shoe.subList(1, shoe.size()));
+    }
+
+    @Test
+    void replayStopsAtTheRequestedEvent() throws CardsExceptionBase
+    {
+        service.dealCardsToPlayer(gameId, playerId, 3);
+        service.dealCardsToPlayer(gameId, playerId, 3);
+        service.dealCardsToPlayer(gameId, playerId, 3);
+        engine.flushAll();
+
+        EventLogGameStateStore.Replayed afterFirstDeal = store.replay(gameId, 2);
+
+        assertThat(afterFirstDeal.seq()).isEqualTo(2);
+        assertThat(afterFirstDeal.shoe()).hasSize(49);
+        assertThat(afterFirstDeal.hands().get(playerId)).hasSize(3);
+        assertThat(store.replay(gameId, Long.MAX_VALUE).hands().get(playerId)).hasSize(9);
+    }
+
+    @Test
+    void cardsHandedOutOutsideTheShoeAreLoggedAndReplayed() throws CardsExceptionBase
+    {
+        UUID otherDeckId = service.createDeck("Handed out deck");
+        List<UUID> extraIds = db.sql("SELECT id FROM deck_card WHERE deck_id = :deckId ORDER BY id LIMIT 2")
+                .param("deckId", otherDeckId)
+                .query(UUID.class)
+                .list();
+
+        service.dealCardsToPlayer(gameId, playerId, 1);
+        players.addCardsToPlayerHand(playerId, engine.resolveDeckCards(extraIds));
+        service.dealCardsToPlayer(gameId, playerId, 1);
+        engine.flushAll();
+        List<DeckCardEntity> hand = engine.getHand(playerId);
+
+        engine.discard(gameId);
+
+        assertThat(hand).hasSize(4);
+        assertThat(engine.getHand(playerId)).containsExactlyElementsOf(hand);
+        assertThat(engine.getHand(playerId).subList(1, 3)).extracting(DeckCardEntity::id).containsExactlyElementsOf(extraIds);
+        assertThat(engine.getShoe(gameId).orElseThrow()).hasSize(50);
+    }
+
+    @Test
+    void appendingCardsMissingFromDeckCardIsRejected()
+    {
+        List<PendingWrite> writes = List.of(new PendingWrite.ShoeAppended(List.of(UUID.randomUUID())));
+
+        assertThatThrownBy(() -> store.write(gameId, writes))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("missing from deck_card");
+    }
+
+    @Test
+    void listingGamesWithCardsRemainingIsRejected()
+    {
+        assertThatThrownBy(() -> service.getGames(null, null, false, true))
+                .isInstanceOf(FilterNotSupportedException.class);
+    }
+
+    @Test
+    void onlyTheInMemoryEngineCanUseTheEventLog()
+    {
+        assertThatThrownBy(() -> new EventLogGameStateStore(db, 200, "DATABASE"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("deck.engine.mode=MEMORY");
+    }
+
+    private long count(String sql)
+    {
+        return db.sql(sql).param("gameId", gameId).query(Long.class).single();
+    }
+}
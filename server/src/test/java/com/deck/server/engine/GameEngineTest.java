@@ -0,0 +1,231 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.repositories.CardRegistry;
+import com.deck.server.shuffle.GeneratorRandomSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class GameEngineTest
+{
+    private GameStateStore store;
+    private GameEngine engine;
+
+    private UUID gameId;
+    private UUID playerId;
+    private List<DeckCardEntity> shoe;
+
+    @BeforeEach
+    void setup()
+    {
+        store = mock(GameStateStore.class);
+        engine = new GameEngine(store, mock(CardRegistry.class), Duration.ofSeconds(1), Duration.ofMinutes(30),
+                new GeneratorRandomSource("L64X128MixRandom"));
+
+        gameId = UUID.randomUUID();
+        playerId = UUID.randomUUID();
+        UUID deckId = UUID.randomUUID();
+        shoe = new ArrayList<>();
+        for (short i = 1; i <= 10; i++)
+            shoe.add(new DeckCardEntity(UUID.randomUUID(), deckId, i));
+
+        Map<UUID, List<DeckCardEntity>> hands = new LinkedHashMap<>();
+        hands.put(playerId, List.of());
+        when(store.load(gameId)).thenReturn(Optional.of(new GameSnapshot(shoe, hands, 5)));
+    }
+
+    @Test
+    void unknownGameDoesNotExist()
+    {
+        assertThat(engine.gameExists(UUID.randomUUID())).isFalse();
+        assertThat(engine.gameExists(gameId)).isTrue();
+    }
+
+    @Test
+    void dealTakesFromTopAndIsWrittenBehind()
+    {
+        List<DeckCardEntity> first = engine.deal(gameId, playerId, 3);
+        List<DeckCardEntity> second = engine.deal(gameId, playerId, 2);
+
+        assertThat(first).containsExactlyElementsOf(shoe.subList(0, 3));
+        assertThat(second).containsExactlyElementsOf(shoe.subList(3, 5));
+        assertThat(engine.getShoe(gameId)).contains(shoe.subList(5, 10));
+        assertThat(engine.getHand(playerId)).containsExactlyElementsOf(shoe.subList(0, 5));
+        verify(store, never()).write(any(), any());
+
+        engine.flushAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(store).write(eq(gameId), writes.capture());
+        assertThat(writes.getValue()).containsExactly(
+                new PendingWrite.CardsDealt(playerId, ids(shoe.subList(0, 3)), 1),
+                new PendingWrite.CardsDealt(playerId, ids(shoe.subList(3, 5)), 4));
+    }
+
+    @Test
+    void dealRoundGoesRoundRobinAndStopsWhenShoeIsEmpty()
+    {
+        UUID second = UUID.randomUUID();
+        engine.gameExists(gameId);
+        engine.playerJoined(gameId, second);
+
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        counts.put(playerId, 6);
+        counts.put(second, 3);
+        Map<UUID, List<DeckCardEntity>> dealt = engine.dealRound(gameId, counts);
+
+        // Passes 0..2 alternate, then only the first seat keeps receiving until the 10 cards run out
+        assertThat(dealt.get(playerId)).containsExactly(shoe.get(0), shoe.get(2), shoe.get(4), shoe.get(6), shoe.get(7), shoe.get(8));
+        assertThat(dealt.get(second)).containsExactly(shoe.get(1), shoe.get(3), shoe.get(5));
+        assertThat(engine.getShoe(gameId).orElseThrow()).containsExactly(shoe.get(9));
+    }
+
+    @Test
+    void shuffleKeepsCardsAndPushbackAppends()
+    {
+        engine.deal(gameId, playerId, 2);
+        engine.shuffle(gameId);
+        List<DeckCardEntity> shuffled = engine.getShoe(gameId).orElseThrow();
+        assertThat(shuffled).containsExactlyInAnyOrderElementsOf(shoe.subList(2, 10));
+
+        DeckCardEntity extra = new DeckCardEntity(UUID.randomUUID(), UUID.randomUUID(), (short) 11);
+        assertThat(engine.pushback(gameId, List.of(extra, shoe.get(5)))).contains(List.of(extra));
+
+        List<DeckCardEntity> after = engine.getShoe(gameId).orElseThrow();
+        assertThat(after).hasSize(9);
+        assertThat(after.getLast()).isEqualTo(extra);
+    }
+
+    @Test
+    void shoeGrowsPastInitialCapacity()
+    {
+        List<DeckCardEntity> many = new ArrayList<>();
+        for (int i = 0; i < 500; i++)
+            many.add(new DeckCardEntity(UUID.randomUUID(), UUID.randomUUID(), (short) 1));
+
+        engine.deal(gameId, playerId, 4);
+        engine.pushback(gameId, many);
+
+        List<DeckCardEntity> after = engine.getShoe(gameId).orElseThrow();
+        assertThat(after).hasSize(506);
+        assertThat(after.subList(0, 6)).containsExactlyElementsOf(shoe.subList(4, 10));
+        assertThat(after.subList(6, 506)).containsExactlyElementsOf(many);
+    }
+
+    @Test
+    void versionIsBumpedInMemoryAndWrittenBehindWithTheChanges()
+    {
+        engine.deal(gameId, playerId, 1);
+        engine.bumpVersion(gameId);
+        engine.bumpVersion(gameId);
+
+        assertThat(engine.getVersion(gameId)).contains(7L);
+        assertThat(engine.getVersionOfPlayerGame(playerId)).contains(7L);
+        verify(store, never()).write(any(), any());
+
+        engine.flushAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(store).write(eq(gameId), writes.capture());
+        assertThat(writes.getValue()).containsExactly(
+                new PendingWrite.CardsDealt(playerId, ids(shoe.subList(0, 1)), 1),
+                new PendingWrite.VersionBumped(7));
+    }
+
+    @Test
+    void failedWriteIsKeptAndRetried()
+    {
+        doThrow(new IllegalStateException("boom")).doNothing().when(store).write(eq(gameId), any());
+
+        engine.deal(gameId, playerId, 1);
+        engine.flushAll();
+
+        // The unwritten deal stays in memory, the game is not reloaded over it
+        assertThat(engine.getShoe(gameId)).contains(shoe.subList(1, 10));
+        assertThat(engine.getHand(playerId)).containsExactly(shoe.get(0));
+        verify(store, times(1)).load(gameId);
+
+        // Backing off, the scheduled flush does not retry right away
+        engine.flushAndEvictIdle();
+        verify(store, times(1)).write(eq(gameId), any());
+
+        engine.flushAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(store, times(2)).write(eq(gameId), writes.capture());
+        assertThat(writes.getAllValues()).allSatisfy(batch -> assertThat(batch).containsExactly(
+                new PendingWrite.CardsDealt(playerId, ids(shoe.subList(0, 1)), 1)));
+    }
+
+    @Test
+    void playerFlushThrowsWhileTheirGameCannotBeWritten()
+    {
+        doThrow(new IllegalStateException("boom")).when(store).write(eq(gameId), any());
+
+        engine.deal(gameId, playerId, 1);
+
+        assertThatThrownBy(() -> engine.flushGameOfPlayer(playerId)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void cardsHandedOutBetweenDealsKeepEveryQueuedChange()
+    {
+        DeckCardEntity extra = new DeckCardEntity(UUID.randomUUID(), UUID.randomUUID(), (short)11);
+
+        engine.deal(gameId, playerId, 1);
+        assertThat(engine.handOut(playerId, List.of(extra))).isTrue();
+        engine.deal(gameId, playerId, 1);
+
+        // Still the loaded game, nothing queued before or after the hand-out was dropped
+        assertThat(engine.getHand(playerId)).containsExactly(shoe.get(0), extra, shoe.get(1));
+        assertThat(engine.getShoe(gameId)).containsExactlyElementsOf(shoe.subList(2, 10));
+        verify(store, times(1)).load(gameId);
+
+        engine.flushAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(store).write(eq(gameId), writes.capture());
+        assertThat(writes.getValue()).containsExactly(
+                new PendingWrite.CardsDealt(playerId, ids(shoe.subList(0, 1)), 1),
+                new PendingWrite.CardsHandedOut(playerId, List.of(extra.id()), 2),
+                new PendingWrite.CardsDealt(playerId, ids(shoe.subList(1, 2)), 3));
+    }
+
+    @Test
+    void cardsCannotBeHandedOutToAPlayerInNoGame()
+    {
+        assertThat(engine.handOut(UUID.randomUUID(), List.of(shoe.get(0)))).isFalse();
+    }
+
+    @Test
+    void nextHandOrderFollowsTheHighestLoaded()
+    {
+        when(store.load(gameId)).thenReturn(Optional.of(
+                new GameSnapshot(shoe, Map.of(playerId, List.of()), Map.of(playerId, 7), 0)));
+
+        engine.deal(gameId, playerId, 2);
+        engine.flushAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PendingWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(store).write(eq(gameId), writes.capture());
+        assertThat(writes.getValue()).containsExactly(new PendingWrite.CardsDealt(playerId, ids(shoe.subList(0, 2)), 8));
+    }
+
+    private static List<UUID> ids(List<DeckCardEntity> cards)
+    {
+        return cards.stream().map(DeckCardEntity::id).toList();
+    }
+}
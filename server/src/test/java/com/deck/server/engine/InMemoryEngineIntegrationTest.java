@@ -0,0 +1,86 @@
+package com.deck.server.engine;
+
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.exceptions.CardsExceptionBase;
+import com.deck.server.repositories.CardRepository;
+import com.deck.server.repositories.GameRepository;
+import com.deck.server.repositories.UserRepository;
+import com.deck.server.services.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the service on top of the in-memory engine and checks that what it writes behind matches memory.
+ * Not transactional, the flusher writes from its own transactions.
+ */
+@SpringBootTest(properties = { "deck.engine.mode=MEMORY", "deck.engine.flush-interval=1h" })
+@ActiveProfiles("test")
+class InMemoryEngineIntegrationTest
+{
+    @Autowired private GameService service;
+    @Autowired private GameEngine engine;
+    @Autowired private GameRepository jdbcGames;
+    @Autowired private CardRepository cards;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcClient db;
+
+    private UUID gameId;
+    private UUID deckId;
+    private UUID userId;
+    private UUID playerId;
+
+    @BeforeEach
+    void setup() throws CardsExceptionBase
+    {
+        cards.populateAll();
+        gameId = service.createGame();
+        deckId = service.createDeck("Engine deck");
+        userId = users.createUser("engine-" + UUID.randomUUID(), UUID.randomUUID());
+        playerId = service.addPlayerToGame(gameId, userId);
+        service.addDeckToGame(gameId, deckId);
+    }
+
+    @AfterEach
+    void cleanup() throws CardsExceptionBase
+    {
+        service.deleteGame(gameId);
+        db.sql("DELETE FROM deck WHERE id = :id").param("id", deckId).update();
+        users.deleteUser(userId);
+    }
+
+    @Test
+    void dealsAndShufflesAreServedFromMemoryThenWrittenBehind() throws CardsExceptionBase
+    {
+        service.dealCardsToPlayer(gameId, playerId, 3);
+        service.shuffleShoeForGame(gameId);
+
+        assertThat(service.getPlayerHand(playerId)).hasSize(3);
+        List<DeckCardEntity> memoryShoe = engine.getShoe(gameId).orElseThrow();
+        assertThat(memoryShoe).hasSize(49);
+
+        // Nothing has reached the tables yet
+        assertThat(jdbcGames.getShoeCards(gameId)).isEmpty();
+
+        engine.flushAll();
+
+        assertThat(jdbcGames.getShoeCards(gameId))
+                .extracting(CardDefinition::id)
+                .containsExactlyElementsOf(memoryShoe.stream().map(DeckCardEntity::card_def_id).toList());
+        int inHand = db.sql("SELECT COUNT(*) FROM hand_card WHERE player_id = :playerId")
+                .param("playerId", playerId)
+                .query(Integer.class)
+                .single();
+        assertThat(inHand).isEqualTo(3);
+    }
+}
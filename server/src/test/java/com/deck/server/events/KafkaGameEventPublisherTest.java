@@ -0,0 +1,106 @@
+package com.deck.server.events;
+
+import com.deck.server.repositories.CardRepository;
+import com.deck.server.repositories.UserRepository;
+import com.deck.server.services.GameService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the service against the embedded broker. Not transactional: events are only sent once the
+ * surrounding transaction commits, so the test cleans up after itself.
+ */
+@SpringBootTest(properties = {
+        "deck.events.kafka.enabled=true",
+        "deck.events.kafka.topic=game-events-test",
+        "deck.events.kafka.partitions=3",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(partitions = 3, topics = "game-events-test")
+class KafkaGameEventPublisherTest
+{
+    @Autowired private GameService service;
+    @Autowired private CardRepository cards;
+    @Autowired private UserRepository users;
+    @Autowired private EmbeddedKafkaBroker broker;
+    @Autowired private JdbcClient db;
+
+    @Test
+    void eventsOfAGameArriveInOrderKeyedByGameId() throws Exception
+    {
+        cards.populateAll();
+
+        UUID gameId = service.createGame();
+        UUID deckId = service.createDeck("Kafka deck");
+        UUID userId = users.createUser("kafka-" + UUID.randomUUID(), UUID.randomUUID());
+
+        try (Consumer<String, String> consumer = consumer())
+        {
+            broker.consumeFromAnEmbeddedTopic(consumer, "game-events-test");
+
+            service.addDeckToGame(gameId, deckId);
+            UUID playerId = service.addPlayerToGame(gameId, userId);
+            service.shuffleShoeForGame(gameId);
+            service.dealCardsToPlayer(gameId, playerId, 2);
+            service.removePlayer(playerId);
+            service.deleteGame(gameId);
+
+            List<ConsumerRecord<String, String>> received = new ArrayList<>();
+            long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+            while (received.size() < 7 && System.nanoTime() < deadline)
+            {
+                for (ConsumerRecord<String, String> record : KafkaTestUtils.getRecords(consumer, Duration.ofSeconds(1)))
+                {
+                    if (record.key().equals(gameId.toString()))
+                        received.add(record);
+                }
+            }
+
+            assertThat(received)
+                    .extracting(record -> new String(record.headers().lastHeader("__TypeId__").value(), StandardCharsets.UTF_8))
+                    .containsExactly(
+                            GameEvent.GameCreated.class.getName(),
+                            GameEvent.DeckAdded.class.getName(),
+                            GameEvent.PlayerJoined.class.getName(),
+                            GameEvent.ShoeShuffled.class.getName(),
+                            GameEvent.CardsDealt.class.getName(),
+                            GameEvent.PlayerLeft.class.getName(),
+                            GameEvent.GameDeleted.class.getName());
+            assertThat(received).extracting(ConsumerRecord::partition).containsOnly(received.getFirst().partition());
+            assertThat(received.get(4).value()).contains(playerId.toString()).contains("\"cards\"");
+        }
+        finally
+        {
+            db.sql("DELETE FROM deck WHERE id = :id").param("id", deckId).update();
+            users.deleteUser(userId);
+        }
+    }
+
+    private Consumer<String, String> consumer()
+    {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("game-events-test-" + UUID.randomUUID(), "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer()).createConsumer();
+    }
+}
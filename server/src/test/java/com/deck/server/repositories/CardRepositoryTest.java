@@ -14,6 +14,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -23,6 +24,9 @@ class CardRepositoryTest
     @Autowired
     private CardRepository cards;
 
+    @Autowired
+    private CardRegistry registry;
+
     @BeforeEach
     void setup()
     {
@@ -123,4 +127,20 @@ class CardRepositoryTest
         List<CardDefinition> subset = cards.getManyById(null);
         assertThat(subset).isEmpty();
     }
+
+    @Test
+    void registry_ShouldResolveEveryDefinitionById()
+    {
+        cards.populateAll();
+
+        for (CardDefinition def : cards.getAll())
+        {
+            assertThat(registry.get(def.id())).isEqualTo(def);
+            assertThat(Suit.fromShort(def.suit().toShort())).isEqualTo(def.suit());
+            assertThat(Rank.fromShort(def.rank().toShort())).isEqualTo(def.rank());
+        }
+
+        assertThat(registry.find((short) -1)).isEmpty();
+        assertThatThrownBy(() -> Rank.fromShort((short) 14)).isInstanceOf(IllegalArgumentException.class);
+    }
 }
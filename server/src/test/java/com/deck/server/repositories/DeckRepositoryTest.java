@@ -76,6 +76,30 @@ class DeckRepositoryTest
         assertThat(decks.countCardsInDeck(deckId)).isZero();
     }
 
+    @Test
+    void addAllCardsToDeck_ShouldAddEveryDefinition()
+    {
+        int added = decks.addAllCardsToDeck(deckId);
+
+        assertThat(added).isEqualTo(defs.size());
+        assertThat(decks.getCardsInDeck(deckId))
+                .extracting(DeckCardEntity::card_def_id)
+                .containsExactlyInAnyOrderElementsOf(defs.stream().map(CardDefinition::id).toList());
+    }
+
+    @Test
+    void createFullDecks_ShouldCreateDecksWithAllCards()
+    {
+        List<UUID> created = decks.createFullDecks("Bulk", 3);
+
+        assertThat(created).hasSize(3).doesNotHaveDuplicates();
+        for (UUID id : created)
+        {
+            assertThat(decks.getDeckById(id)).map(DeckEntity::name).contains("Bulk");
+            assertThat(decks.countCardsInDeck(id)).isEqualTo(defs.size());
+        }
+    }
+
     @Test
     void clearAllCardsFromDeck_ShouldRemoveAllCards()
     {
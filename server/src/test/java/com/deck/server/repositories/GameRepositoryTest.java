@@ -1,16 +1,23 @@
 package com.deck.server.repositories;
 
+import com.deck.server.config.ShuffleMode;
 import com.deck.server.entity.CardDefinition;
 import com.deck.server.entity.DeckCardEntity;
 import com.deck.server.entity.GameEntity;
+import com.deck.server.entity.ShoeSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,6 +30,9 @@ class GameRepositoryTest
     @Autowired private GameRepository games;
     @Autowired private DeckRepository decks;
     @Autowired private CardRepository cards;
+    @Autowired private PlayerRepository players;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcClient db;
 
     private UUID gameId;
     private UUID deckId;
@@ -42,12 +52,12 @@ class GameRepositoryTest
     }
 
     @Test
-    void createAndGetAll_ShouldWork()
+    void createAndGetPage_ShouldWork()
     {
         assertThat(games.doesGameExist(gameId)).isTrue();
 
-        List<GameEntity> all = games.getAll();
-        assertThat(all).extracting(GameEntity::id).contains(gameId);
+        List<GameEntity> page = games.getPage(null, 10, false, false);
+        assertThat(page).extracting(GameEntity::id).contains(gameId);
     }
 
     @Test
@@ -66,6 +76,25 @@ class GameRepositoryTest
         assertThat(shoe.get(0).id()).isEqualTo(defId);
     }
 
+    @Test
+    void pushbackCardsToShoe_ShouldAppendInOrderAndSkipDuplicates()
+    {
+        List<UUID> first = defs.subList(0, 3).stream()
+                .map(def -> decks.addCardToDeck(deckId, def.id()))
+                .toList();
+        List<UUID> second = defs.subList(3, 5).stream()
+                .map(def -> decks.addCardToDeck(deckId, def.id()))
+                .toList();
+
+        assertThat(games.pushbackCardsToShoe(gameId, first)).contains(first);
+        assertThat(games.pushbackCardsToShoe(gameId, second)).contains(second);
+        assertThat(games.pushbackCardsToShoe(gameId, first)).contains(List.of());
+
+        List<CardDefinition> shoe = games.getShoeCards(gameId);
+        assertThat(shoe).extracting(CardDefinition::id)
+                .containsExactlyElementsOf(defs.subList(0, 5).stream().map(CardDefinition::id).toList());
+    }
+
     @Test
     void popCardsFromShoe_ShouldReturnAndRemoveCards()
     {
@@ -91,6 +120,84 @@ class GameRepositoryTest
         assertThat(games.getShoeCards(gameId)).hasSize(1);
     }
 
+    @Test
+    void dealCardsToPlayer_ShouldMoveTopCardsIntoHand()
+    {
+        List<UUID> deckCards = defs.subList(0, 5).stream()
+                .map(def -> decks.addCardToDeck(deckId, def.id()))
+                .toList();
+        games.pushbackCardsToShoe(gameId, deckCards);
+
+        UUID userId = users.createUser("Dealer Test", UUID.randomUUID());
+        UUID playerId = players.addPlayerToGame(gameId, userId);
+
+        List<DeckCardEntity> first = games.dealCardsToPlayer(gameId, playerId, 2);
+        List<DeckCardEntity> second = games.dealCardsToPlayer(gameId, playerId, 2);
+
+        assertThat(first).extracting(DeckCardEntity::id).containsExactlyElementsOf(deckCards.subList(0, 2));
+        assertThat(second).extracting(DeckCardEntity::id).containsExactlyElementsOf(deckCards.subList(2, 4));
+        assertThat(games.getShoeCards(gameId)).extracting(CardDefinition::id).containsExactly(defs.get(4).id());
+        assertThat(players.getHandForPlayer(playerId)).extracting(CardDefinition::id)
+                .containsExactlyElementsOf(defs.subList(0, 4).stream().map(CardDefinition::id).toList());
+
+        // Asking for more than is left only deals what remains
+        assertThat(games.dealCardsToPlayer(gameId, playerId, 10)).hasSize(1);
+        assertThat(games.dealCardsToPlayer(gameId, playerId, 1)).isEmpty();
+    }
+
+    @Test
+    void dealRound_ShouldDealOneCardPerSeatPerPass()
+    {
+        List<UUID> deckCards = defs.subList(0, 7).stream()
+                .map(def -> decks.addCardToDeck(deckId, def.id()))
+                .toList();
+        games.pushbackCardsToShoe(gameId, deckCards);
+
+        UUID first = players.addPlayerToGame(gameId, users.createUser("Round One", UUID.randomUUID()));
+        UUID second = players.addPlayerToGame(gameId, users.createUser("Round Two", UUID.randomUUID()));
+        games.dealCardsToPlayer(gameId, second, 1);
+
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        counts.put(first, 3);
+        counts.put(second, 2);
+        Map<UUID, List<DeckCardEntity>> dealt = games.dealRound(gameId, counts);
+
+        assertThat(dealt.get(first)).extracting(DeckCardEntity::id)
+                .containsExactly(deckCards.get(1), deckCards.get(3), deckCards.get(5));
+        assertThat(dealt.get(second)).extracting(DeckCardEntity::id)
+                .containsExactly(deckCards.get(2), deckCards.get(4));
+        assertThat(games.getShoeCards(gameId)).extracting(CardDefinition::id).containsExactly(defs.get(6).id());
+        assertThat(players.getHandForPlayer(second)).extracting(CardDefinition::id)
+                .containsExactly(defs.get(0).id(), defs.get(2).id(), defs.get(4).id());
+        assertThat(games.getShoeSummary(gameId).orElseThrow().remaining(defs.get(1).suit(), defs.get(1).rank())).isZero();
+    }
+
+    @Test
+    void shoeSummary_ShouldFollowPushbackPopAndDeal()
+    {
+        CardDefinition first = defs.get(0);
+        CardDefinition second = defs.get(1);
+        List<UUID> deckCards = List.of(
+                decks.addCardToDeck(deckId, first.id()),
+                decks.addCardToDeck(deckId, first.id()),
+                decks.addCardToDeck(deckId, second.id()));
+        games.pushbackCardsToShoe(gameId, deckCards);
+
+        ShoeSummary summary = games.getShoeSummary(gameId).orElseThrow();
+        assertThat(summary.remaining(first.suit(), first.rank())).isEqualTo(2);
+        assertThat(summary.remaining(second.suit(), second.rank())).isEqualTo(1);
+
+        games.popCardsFromShoe(gameId, 1);
+        assertThat(games.getShoeSummary(gameId).orElseThrow().remaining(first.suit(), first.rank())).isEqualTo(1);
+
+        UUID playerId = players.addPlayerToGame(gameId, users.createUser("Summary Test", UUID.randomUUID()));
+        games.dealCardsToPlayer(gameId, playerId, 2);
+
+        summary = games.getShoeSummary(gameId).orElseThrow();
+        assertThat(summary.remaining(first.suit(), first.rank())).isZero();
+        assertThat(summary.remaining(second.suit(), second.rank())).isZero();
+    }
+
     @Test
     void shuffleShoe_ShouldReorderCards()
     {
@@ -130,10 +237,98 @@ class GameRepositoryTest
                 .isTrue();
     }
 
+    @Test
+    void shuffleShoe_SqlModeIsReproducibleFromTheSeed()
+    {
+        List<UUID> deckCards = defs.subList(0, 20).stream().map(def -> decks.addCardToDeck(deckId, def.id())).toList();
+        UUID first = games.createGame(ShuffleMode.SQL);
+        UUID second = games.createGame(ShuffleMode.SQL);
+        for (UUID game : List.of(first, second))
+        {
+            db.sql("UPDATE game SET shuffle_seed = 42 WHERE id = :id").param("id", game).update();
+            games.pushbackCardsToShoe(game, deckCards);
+        }
+        List<CardDefinition> before = games.getShoeCards(first);
+
+        assertThat(games.shuffleShoe(first)).isTrue();
+        assertThat(games.shuffleShoe(second)).isTrue();
+
+        List<CardDefinition> shuffled = games.getShoeCards(first);
+        assertThat(shuffled).containsExactlyInAnyOrderElementsOf(before).isNotEqualTo(before);
+        assertThat(games.getShoeCards(second)).isEqualTo(shuffled);
+
+        // The next shuffle of the same game uses the next seed in the sequence
+        games.shuffleShoe(first);
+        assertThat(games.getShoeCards(first)).isNotEqualTo(shuffled);
+        assertThat(db.sql("SELECT shuffle_count FROM game WHERE id = :id").param("id", first).query(Integer.class).single())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void getPage_ShouldWalkNewestFirstAndApplyFilters()
+    {
+        // Games created in one transaction share created_at, so the id breaks the tie
+        UUID withPlayer = gameId;
+        UUID withCards = games.createGame();
+        UUID empty = games.createGame();
+        players.addPlayerToGame(withPlayer, users.createUser("Page Test", UUID.randomUUID()));
+        games.pushbackCardsToShoe(withCards, List.of(decks.addCardToDeck(deckId, defs.getFirst().id())));
+        List<UUID> created = List.of(withPlayer, withCards, empty);
+
+        List<GameEntity> first = games.getPage(null, 2, false, false);
+        List<GameEntity> second = games.getPage(first.getLast(), 1, false, false);
+        List<UUID> walked = new ArrayList<>(first.stream().map(GameEntity::id).toList());
+        walked.add(second.getFirst().id());
+        // Postgres orders uuid by unsigned bytes, which the fixed-width lowercase hex form sorts the same as.
+        // UUID.compareTo compares signed longs and disagrees whenever the top bit differs.
+        assertThat(walked).containsExactlyElementsOf(
+                created.stream().sorted(Comparator.comparing(UUID::toString).reversed()).toList());
+
+        assertThat(games.getPage(null, 3, true, false)).extracting(GameEntity::id)
+                .contains(withPlayer).doesNotContain(withCards, empty);
+        assertThat(games.getPage(null, 3, false, true)).extracting(GameEntity::id)
+                .contains(withCards).doesNotContain(withPlayer, empty);
+        assertThat(games.getPage(null, 3, true, true)).extracting(GameEntity::id)
+                .doesNotContainAnyElementsOf(created);
+    }
+
     @Test
     void deleteGame_ShouldRemoveIt()
     {
-        games.deleteGame(gameId);
+        assertThat(games.deleteGame(gameId)).isTrue();
         assertThat(games.doesGameExist(gameId)).isFalse();
+        assertThat(games.deleteGame(gameId)).isFalse();
+    }
+
+    @Test
+    void version_ShouldStartAtZeroAndOnlyMoveWhenBumped()
+    {
+        assertThat(games.getVersion(gameId)).contains(0L);
+
+        games.bumpVersion(gameId);
+        games.bumpVersion(gameId);
+        assertThat(games.getVersion(gameId)).contains(2L);
+
+        UUID playerId = players.addPlayerToGame(gameId, users.createUser("Version Test", UUID.randomUUID()));
+        assertThat(players.getGameVersionOfPlayer(playerId)).contains(2L);
+
+        assertThat(games.getVersion(UUID.randomUUID())).isEmpty();
+        assertThat(players.getGameVersionOfPlayer(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void missingGame_ShouldBeReportedByTheOperationItself()
+    {
+        UUID missing = UUID.randomUUID();
+        UUID card = decks.addCardToDeck(deckId, defs.getFirst().id());
+
+        assertThat(games.getShoeSummary(missing)).isEmpty();
+        assertThat(games.shuffleShoe(missing)).isFalse();
+        assertThat(games.pushbackCardsToShoe(missing, List.of(card))).isEmpty();
+
+        // An existing game with an empty shoe is not missing
+        assertThat(games.getShoeSummary(gameId)).isPresent();
+        assertThat(games.shuffleShoe(gameId)).isTrue();
+        assertThat(games.pushbackCardsToShoe(gameId, List.of(card))).contains(List.of(card));
     }
 }
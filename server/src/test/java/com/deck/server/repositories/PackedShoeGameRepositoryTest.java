@@ -0,0 +1,225 @@
+package com.deck.server.repositories;
+
+import com.deck.server.config.ShoeStorage;
+import com.deck.server.config.ShuffleMode;
+import com.deck.server.entity.CardDefinition;
+import com.deck.server.entity.DeckCardEntity;
+import com.deck.server.entity.ShoeSummary;
+import com.deck.server.exceptions.ShoeFullException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "deck.shoe.storage=PACKED")
+@ActiveProfiles("test")
+@Transactional
+class PackedShoeGameRepositoryTest
+{
+    @Autowired private IGameRepository games;
+    @Autowired private GameRepository rowGames;
+    @Autowired private DeckRepository decks;
+    @Autowired private CardRepository cards;
+    @Autowired private PlayerRepository players;
+    @Autowired private UserRepository users;
+    @Autowired private JdbcClient db;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private UUID gameId;
+    private UUID deckId;
+    private List<CardDefinition> defs;
+
+    @BeforeEach
+    void setup()
+    {
+        cards.populateAll();
+        defs = cards.getAll();
+        deckId = decks.createDeck("Packed Deck");
+        gameId = games.createGame();
+    }
+
+    @Test
+    void packedRepositoryIsTheOneInUse()
+    {
+        assertThat(games).isInstanceOf(PackedShoeGameRepository.class);
+    }
+
+    @Test
+    void pushbackCardsToShoe_ShouldAppendInOrderAndSkipDuplicates() throws ShoeFullException
+    {
+        List<UUID> first = addToDeck(0, 3);
+        List<UUID> second = addToDeck(3, 5);
+
+        assertThat(games.pushbackCardsToShoe(gameId, first)).contains(first);
+        assertThat(games.pushbackCardsToShoe(gameId, second)).contains(second);
+        assertThat(games.pushbackCardsToShoe(gameId, first)).contains(List.of());
+
+        assertThat(games.getShoeCards(gameId)).extracting(CardDefinition::id)
+                .containsExactlyElementsOf(defs.subList(0, 5).stream().map(CardDefinition::id).toList());
+        assertThat(db.sql("SELECT COUNT(*) FROM shoe_card WHERE game_id = :gameId").param("gameId", gameId)
+                .query(Long.class).single()).isZero();
+    }
+
+    @Test
+    void dealCardsToPlayer_ShouldOnlyAdvanceTheCursor() throws ShoeFullException
+    {
+        List<UUID> deckCards = addToDeck(0, 5);
+        games.pushbackCardsToShoe(gameId, deckCards);
+        UUID playerId = players.addPlayerToGame(gameId, users.createUser("Packed Dealer", UUID.randomUUID()));
+
+        byte[] shoeBefore = shoeBytes();
+        List<DeckCardEntity> first = games.dealCardsToPlayer(gameId, playerId, 2);
+        List<DeckCardEntity> second = games.dealCardsToPlayer(gameId, playerId, 2);
+
+        assertThat(first).extracting(DeckCardEntity::id).containsExactlyElementsOf(deckCards.subList(0, 2));
+        assertThat(second).extracting(DeckCardEntity::id).containsExactlyElementsOf(deckCards.subList(2, 4));
+        assertThat(shoeBytes()).isEqualTo(shoeBefore);
+        assertThat(games.getShoeCards(gameId)).extracting(CardDefinition::id).containsExactly(defs.get(4).id());
+        assertThat(players.getHandForPlayer(playerId)).extracting(CardDefinition::id)
+                .containsExactlyElementsOf(defs.subList(0, 4).stream().map(CardDefinition::id).toList());
+
+        assertThat(games.dealCardsToPlayer(gameId, playerId, 10)).hasSize(1);
+        assertThat(games.dealCardsToPlayer(gameId, playerId, 1)).isEmpty();
+    }
+
+    @Test
+    void dealRound_ShouldDealOneCardPerSeatPerPass() throws ShoeFullException
+    {
+        List<UUID> deckCards = addToDeck(0, 4);
+        games.pushbackCardsToShoe(gameId, deckCards);
+        UUID first = players.addPlayerToGame(gameId, users.createUser("Packed Round One", UUID.randomUUID()));
+        UUID second = players.addPlayerToGame(gameId, users.createUser("Packed Round Two", UUID.randomUUID()));
+
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        counts.put(first, 3);
+        counts.put(second, 3);
+        Map<UUID, List<DeckCardEntity>> dealt = games.dealRound(gameId, counts);
+
+        assertThat(dealt.get(first)).extracting(DeckCardEntity::id).containsExactly(deckCards.get(0), deckCards.get(2));
+        assertThat(dealt.get(second)).extracting(DeckCardEntity::id).containsExactly(deckCards.get(1), deckCards.get(3));
+        assertThat(games.getShoeCards(gameId)).isEmpty();
+    }
+
+    @Test
+    void shoeSummary_ShouldFollowPushbackPopAndDeal() throws ShoeFullException
+    {
+        CardDefinition first = defs.get(0);
+        CardDefinition second = defs.get(1);
+        games.pushbackCardsToShoe(gameId, List.of(
+                decks.addCardToDeck(deckId, first.id()),
+                decks.addCardToDeck(deckId, first.id()),
+                decks.addCardToDeck(deckId, second.id())));
+
+        ShoeSummary summary = games.getShoeSummary(gameId).orElseThrow();
+        assertThat(summary.remaining(first.suit(), first.rank())).isEqualTo(2);
+        assertThat(summary.remaining(second.suit(), second.rank())).isEqualTo(1);
+
+        assertThat(games.popCardsFromShoe(gameId, 1)).hasSize(1);
+        assertThat(games.getShoeSummary(gameId).orElseThrow().remaining(first.suit(), first.rank())).isEqualTo(1);
+
+        UUID playerId = players.addPlayerToGame(gameId, users.createUser("Packed Summary", UUID.randomUUID()));
+        games.dealCardsToPlayer(gameId, playerId, 2);
+
+        summary = games.getShoeSummary(gameId).orElseThrow();
+        assertThat(summary.remaining(first.suit(), first.rank())).isZero();
+        assertThat(summary.remaining(second.suit(), second.rank())).isZero();
+    }
+
+    @Test
+    void shuffleShoe_ShouldReorderTheUndealtCardsAndCompactTheShoe() throws ShoeFullException
+    {
+        games.pushbackCardsToShoe(gameId, addToDeck(0, 20));
+        games.popCardsFromShoe(gameId, 4);
+        List<CardDefinition> before = games.getShoeCards(gameId);
+
+        games.shuffleShoe(gameId);
+
+        List<CardDefinition> after = games.getShoeCards(gameId);
+        assertThat(after).hasSize(16).containsExactlyInAnyOrderElementsOf(before).isNotEqualTo(before);
+        assertThat(shoeBytes()).hasSize(32);
+    }
+
+    @Test
+    void shuffleShoe_SqlModeMatchesTheRowStorageShuffle() throws ShoeFullException
+    {
+        List<UUID> deckCards = addToDeck(0, 20);
+        UUID packed = games.createGame(ShuffleMode.SQL);
+        UUID rows = rowGames.createGame(ShuffleMode.SQL);
+        db.sql("UPDATE game SET shuffle_seed = 7 WHERE id IN (:ids)").param("ids", List.of(packed, rows)).update();
+        games.pushbackCardsToShoe(packed, deckCards);
+        rowGames.pushbackCardsToShoe(rows, deckCards);
+        games.popCardsFromShoe(packed, 3);
+        rowGames.popCardsFromShoe(rows, 3);
+
+        assertThat(games.shuffleShoe(packed)).isTrue();
+        rowGames.shuffleShoe(rows);
+
+        List<CardDefinition> shuffled = games.getShoeCards(packed);
+        assertThat(shuffled).hasSize(17).isEqualTo(rowGames.getShoeCards(rows));
+        assertThat(shuffled).isNotEqualTo(defs.subList(3, 20));
+        assertThat(games.shuffleShoe(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    void pushbackCardsToShoe_ShouldRefuseMoreCardsThanOrdinalsCanAddress()
+    {
+        db.sql("UPDATE game SET shoe_card_ids = decode(repeat('00', :bytes), 'hex') WHERE id = :gameId")
+                .param("bytes", 16 * 65536)
+                .param("gameId", gameId)
+                .update();
+        List<UUID> card = addToDeck(0, 1);
+
+        assertThatThrownBy(() -> games.pushbackCardsToShoe(gameId, card)).isInstanceOf(ShoeFullException.class);
+        assertThat(shoeBytes()).isEmpty();
+    }
+
+    @Test
+    void storageSwitch_ShouldRebuildTheShoesFromTheStorageLastWritten() throws ShoeFullException
+    {
+        // A stale packed shoe, then the cards written while the server ran with ROWS
+        games.pushbackCardsToShoe(gameId, addToDeck(0, 10));
+        db.sql("UPDATE shoe_storage_state SET storage = 'ROWS'").update();
+        rowGames.pushbackCardsToShoe(gameId, addToDeck(10, 14));
+
+        switchTo(ShoeStorage.PACKED);
+
+        assertThat(games.getShoeCards(gameId)).isEqualTo(defs.subList(10, 14));
+        assertThat(db.sql("SELECT COUNT(*) FROM shoe_card").query(Long.class).single()).isZero();
+
+        games.popCardsFromShoe(gameId, 1);
+        switchTo(ShoeStorage.ROWS);
+
+        assertThat(rowGames.getShoeCards(gameId)).isEqualTo(defs.subList(11, 14));
+        assertThat(shoeBytes()).isEmpty();
+        assertThat(db.sql("SELECT storage FROM shoe_storage_state").query(String.class).single()).isEqualTo("ROWS");
+    }
+
+    private void switchTo(ShoeStorage storage)
+    {
+        new ShoeStorageSwitch(db, transactionManager, storage, "DATABASE", "RELATIONAL").switchIfNeeded();
+    }
+
+    private List<UUID> addToDeck(int from, int to)
+    {
+        return defs.subList(from, to).stream()
+                .map(def -> decks.addCardToDeck(deckId, def.id()))
+                .toList();
+    }
+
+    private byte[] shoeBytes()
+    {
+        return db.sql("SELECT shoe FROM game WHERE id = :gameId").param("gameId", gameId).query(byte[].class).single();
+    }
+}
@@ -3,6 +3,10 @@ package com.deck.server.repositories;
 import com.deck.server.entity.CardDefinition;
 import com.deck.server.entity.DeckCardEntity;
 import com.deck.server.entity.PlayerEntity;
+import com.deck.server.entity.PlayerHandEntity;
+import com.deck.server.entity.PlayerJoinEntity;
+import com.deck.server.entity.PlayerStandingEntity;
+import com.deck.server.entity.Rank;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -68,6 +72,20 @@ class PlayerRepositoryTest
         assertThat(players.doesPlayerExist(p.id())).isTrue();
     }
 
+    @Test
+    void joinGame_ShouldReportWhatIsMissing()
+    {
+        PlayerJoinEntity joined = players.joinGame(gameId, userId);
+        assertThat(joined.gameExists()).isTrue();
+        assertThat(joined.userName()).isEqualTo("Alice");
+        assertThat(players.doesPlayerExist(joined.playerId())).isTrue();
+
+        assertThat(players.joinGame(gameId, userId)).isEqualTo(new PlayerJoinEntity(true, "Alice", null));
+        assertThat(players.joinGame(gameId, UUID.randomUUID())).isEqualTo(new PlayerJoinEntity(true, null, null));
+        assertThat(players.joinGame(UUID.randomUUID(), userId)).isEqualTo(new PlayerJoinEntity(false, "Alice", null));
+        assertThat(players.getAllPlayersInGame(gameId)).hasSize(1);
+    }
+
     @Test
     void removePlayer_ShouldDeleteSuccessfully()
     {
@@ -118,4 +136,66 @@ class PlayerRepositoryTest
         assertThat(hand.get(1).id()).isEqualTo(defs.get(1).id());
         assertThat(hand.get(2).id()).isEqualTo(defs.get(2).id());
     }
+
+    @Test
+    void getStandingsForGame_ShouldSumHandsAndSortByTotal()
+    {
+        UUID aliceId = players.addPlayerToGame(gameId, userId);
+
+        UUID bobUserId = UUID.randomUUID();
+        db.sql("INSERT INTO app_user(id, name) VALUES (:id, :name)")
+                .param("id", bobUserId)
+                .param("name", "Bob")
+                .update();
+        UUID bobId = players.addPlayerToGame(gameId, bobUserId);
+
+        CardDefinition king = defs.stream().filter(d -> d.rank() == Rank.KING).findFirst().orElseThrow();
+        CardDefinition two = defs.stream().filter(d -> d.rank() == Rank.TWO).findFirst().orElseThrow();
+        players.addCardsToPlayerHand(bobId, List.of(
+                new DeckCardEntity(decks.addCardToDeck(deckId, king.id()), deckId, king.id()),
+                new DeckCardEntity(decks.addCardToDeck(deckId, two.id()), deckId, two.id())));
+
+        List<PlayerStandingEntity> standings = players.getStandingsForGame(gameId, null);
+        assertThat(standings).containsExactly(
+                new PlayerStandingEntity(bobId, "Bob", 15),
+                new PlayerStandingEntity(aliceId, "Alice", 0));
+
+        assertThat(players.getStandingsForGame(gameId, 1))
+                .extracting(PlayerStandingEntity::playerId)
+                .containsExactly(bobId);
+    }
+
+    @Test
+    void getHandsForGame_ShouldGroupEveryHandInJoinAndHandOrder()
+    {
+        UUID aliceId = players.addPlayerToGame(gameId, userId);
+
+        UUID bobUserId = UUID.randomUUID();
+        db.sql("INSERT INTO app_user(id, name) VALUES (:id, :name)")
+                .param("id", bobUserId)
+                .param("name", "Bob")
+                .update();
+        UUID bobId = players.addPlayerToGame(gameId, bobUserId);
+        // Players added in one transaction share added_at, so Alice's join is moved back to make the order certain
+        db.sql("UPDATE player SET added_at = added_at - INTERVAL '1 second' WHERE id = :id")
+                .param("id", aliceId)
+                .update();
+
+        players.addCardsToPlayerHand(bobId, List.of(
+                new DeckCardEntity(decks.addCardToDeck(deckId, defs.get(2).id()), deckId, defs.get(2).id()),
+                new DeckCardEntity(decks.addCardToDeck(deckId, defs.get(0).id()), deckId, defs.get(0).id())));
+        players.addCardsToPlayerHand(bobId, List.of(
+                new DeckCardEntity(decks.addCardToDeck(deckId, defs.get(1).id()), deckId, defs.get(1).id())));
+
+        List<PlayerHandEntity> hands = players.getHandsForGame(gameId);
+        assertThat(hands).extracting(PlayerHandEntity::playerId).containsExactly(aliceId, bobId);
+        assertThat(hands).extracting(PlayerHandEntity::userName).containsExactly("Alice", "Bob");
+        assertThat(hands.getFirst().cards()).isEmpty();
+        assertThat(hands.getLast().cards()).extracting(CardDefinition::id)
+                .containsExactly(defs.get(2).id(), defs.get(0).id(), defs.get(1).id());
+        assertThat(hands.getLast().totalValue()).isEqualTo(
+                players.getStandingsForGame(gameId, null).getFirst().totalValue());
+
+        assertThat(players.getHandsForGame(UUID.randomUUID())).isEmpty();
+    }
 }
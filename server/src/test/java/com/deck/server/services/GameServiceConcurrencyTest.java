@@ -0,0 +1,165 @@
+package com.deck.server.services;
+
+import com.deck.server.config.ShoeLockMode;
+import com.deck.server.exceptions.CardsExceptionBase;
+import com.deck.server.repositories.CardRepository;
+import com.deck.server.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deals from many threads at once against the same game, once per {@link ShoeLockMode}. Not transactional: every
+ * deal has to commit on its own for the threads to actually contend, so each test cleans up after itself.
+ */
+class GameServiceConcurrencyTest
+{
+    private static final int DECKS = 2;
+    private static final int PLAYERS = 3;
+
+    @Nested
+    @TestPropertySource(properties = "deck.shoe.lock-mode=ADVISORY_LOCK")
+    class AdvisoryLock extends ConcurrentDeals
+    {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "deck.shoe.lock-mode=SKIP_LOCKED")
+    class SkipLocked extends ConcurrentDeals
+    {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "deck.shoe.lock-mode=NONE")
+    class NoLock extends ConcurrentDeals
+    {
+    }
+
+    @SpringBootTest
+    @ActiveProfiles("test")
+    abstract static class ConcurrentDeals
+    {
+        @Autowired private GameService service;
+        @Autowired private CardRepository cards;
+        @Autowired private UserRepository users;
+        @Autowired private JdbcClient db;
+        @Value("${deck.shoe.lock-mode}") private ShoeLockMode lockMode;
+
+        @BeforeEach
+        void setup()
+        {
+            cards.populateAll();
+        }
+
+        @ParameterizedTest(name = "{0} thread(s)")
+        @ValueSource(ints = { 1, 2, 4, 8, 16 })
+        void concurrentDealsNeverDealTheSameCardTwice(int threads) throws Exception
+        {
+            UUID gameId = service.createGame();
+            List<UUID> deckIds = new ArrayList<>();
+            List<UUID> userIds = new ArrayList<>();
+            List<UUID> playerIds = new ArrayList<>();
+
+            try
+            {
+                for (int i = 0; i < DECKS; i++)
+                {
+                    UUID deckId = service.createDeck("Concurrency deck " + i);
+                    deckIds.add(deckId);
+                    service.addDeckToGame(gameId, deckId);
+                }
+                for (int i = 0; i < PLAYERS; i++)
+                {
+                    UUID userId = users.createUser("concurrency-" + UUID.randomUUID(), UUID.randomUUID());
+                    userIds.add(userId);
+                    playerIds.add(service.addPlayerToGame(gameId, userId));
+                }
+
+                int shoeSize = DECKS * 52;
+                int dealsPerThread = (shoeSize + threads - 1) / threads + 2; // overshoot to also race on an empty shoe
+
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++)
+                {
+                    int thread = t;
+                    futures.add(pool.submit(() ->
+                    {
+                        for (int i = 0; i < dealsPerThread; i++)
+                        {
+                            UUID playerId = playerIds.get((thread + i) % PLAYERS);
+                            try
+                            {
+                                service.dealCardsToPlayer(gameId, playerId, 1);
+                            }
+                            catch (CardsExceptionBase ex)
+                            {
+                                throw new IllegalStateException(ex);
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures)
+                    future.get();
+                pool.shutdown();
+
+                List<UUID> dealt = db.sql("""
+                    SELECT h.card_id
+                    FROM hand_card h
+                    JOIN player p ON p.id = h.player_id
+                    WHERE p.game_id = :gameId
+                    """)
+                        .param("gameId", gameId)
+                        .query(UUID.class)
+                        .list();
+                int remaining = db.sql("SELECT COUNT(*) FROM shoe_card WHERE game_id = :gameId")
+                        .param("gameId", gameId)
+                        .query(Integer.class)
+                        .single();
+
+                // Without any shoe locking, deals that lose a race for the top card come back short, so the
+                // overshoot may not be enough to empty the shoe. No card may be lost or dealt twice either way.
+                assertThat(new HashSet<>(dealt)).hasSameSizeAs(dealt);
+                assertThat(dealt.size() + remaining).isEqualTo(shoeSize);
+                if (lockMode != ShoeLockMode.NONE)
+                    assertThat(remaining).isZero();
+
+                // Hand order has to stay gap-free per player even though several threads deal to the same player
+                for (UUID playerId : playerIds)
+                {
+                    List<Integer> order = db.sql("SELECT hand_order FROM hand_card WHERE player_id = :playerId ORDER BY hand_order")
+                            .param("playerId", playerId)
+                            .query(Integer.class)
+                            .list();
+                    for (int i = 0; i < order.size(); i++)
+                        assertThat(order.get(i)).isEqualTo(i + 1);
+                }
+            }
+            finally
+            {
+                service.deleteGame(gameId);
+                for (UUID deckId : deckIds)
+                    db.sql("DELETE FROM deck WHERE id = :id").param("id", deckId).update();
+                for (UUID userId : userIds)
+                    users.deleteUser(userId);
+            }
+        }
+    }
+}
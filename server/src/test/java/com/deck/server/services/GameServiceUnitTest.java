@@ -1,14 +1,23 @@
 package com.deck.server.services;
 
+import com.deck.server.config.ShuffleMode;
 import com.deck.server.dto.*;
 import com.deck.server.entity.*;
+import com.deck.server.events.GameEvent;
 import com.deck.server.exceptions.*;
 import com.deck.server.repositories.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -22,7 +31,8 @@ class GameServiceUnitTest
     private IDeckRepository deckRepo;
     private IPlayerRepository playerRepo;
     private IGameRepository gameRepo;
-    private UserRepository userRepo;
+    private ApplicationEventPublisher events;
+    private GameReadCache readCache;
     private GameService service;
 
     @BeforeEach
@@ -32,8 +42,9 @@ class GameServiceUnitTest
         deckRepo = mock(IDeckRepository.class);
         playerRepo = mock(IPlayerRepository.class);
         gameRepo = mock(IGameRepository.class);
-        userRepo = mock(UserRepository.class);
-        service = new GameService(cardRepo, deckRepo, playerRepo, gameRepo, userRepo);
+        events = mock(ApplicationEventPublisher.class);
+        readCache = new GameReadCache(100, Duration.ofMinutes(5));
+        service = new GameService(cardRepo, deckRepo, playerRepo, gameRepo, events, readCache);
     }
 
     @Test
@@ -48,12 +59,25 @@ class GameServiceUnitTest
         verify(gameRepo).createGame();
     }
 
+    @Test
+    void createGamePassesShuffleModeThrough() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.createGame(ShuffleMode.SQL)).thenReturn(gid);
+
+        assertThat(service.createGame(ShuffleMode.SQL)).isEqualTo(gid);
+        verify(gameRepo, never()).createGame();
+        verify(events).publishEvent(new GameEvent.GameCreated(gid));
+    }
+
     @Test
     void deleteGameThrowsWhenMissing()
     {
         UUID gid = UUID.randomUUID();
-        when(gameRepo.doesGameExist(gid)).thenReturn(false);
+        when(gameRepo.deleteGame(gid)).thenReturn(false);
         assertThrows(GameDoesNotExistException.class, () -> service.deleteGame(gid));
+        verify(gameRepo, never()).doesGameExist(any());
+        verifyNoInteractions(events);
     }
 
     @Test
@@ -61,15 +85,55 @@ class GameServiceUnitTest
     {
         UUID gid = UUID.randomUUID();
         UUID uid = UUID.randomUUID();
-        when(gameRepo.doesGameExist(gid)).thenReturn(true);
-        when(userRepo.doesUserExist(uid)).thenReturn(true);
         UUID pid = UUID.randomUUID();
-        when(playerRepo.addPlayerToGame(gid, uid)).thenReturn(pid);
+        when(playerRepo.joinGame(gid, uid)).thenReturn(new PlayerJoinEntity(true, "Alice", pid));
 
         UUID result = service.addPlayerToGame(gid, uid);
 
         assertThat(result).isEqualTo(pid);
-        verify(playerRepo).addPlayerToGame(gid, uid);
+        verify(playerRepo).joinGame(gid, uid);
+        verify(gameRepo, never()).doesGameExist(any());
+        verify(events).publishEvent(new GameEvent.PlayerJoined(gid, pid, "Alice"));
+    }
+
+    @Test
+    void addPlayerToGameMapsJoinOutcomeToExceptions()
+    {
+        UUID gid = UUID.randomUUID();
+        UUID uid = UUID.randomUUID();
+
+        when(playerRepo.joinGame(gid, uid)).thenReturn(new PlayerJoinEntity(false, "Alice", null));
+        assertThrows(GameDoesNotExistException.class, () -> service.addPlayerToGame(gid, uid));
+
+        when(playerRepo.joinGame(gid, uid)).thenReturn(new PlayerJoinEntity(true, null, null));
+        assertThrows(UserDoesNotExistException.class, () -> service.addPlayerToGame(gid, uid));
+
+        when(playerRepo.joinGame(gid, uid)).thenReturn(new PlayerJoinEntity(true, "Alice", null));
+        assertThrows(UserAlreadyInGameException.class, () -> service.addPlayerToGame(gid, uid));
+
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void removePlayerPublishesLeftEventForItsGame() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID pid = UUID.randomUUID();
+        when(playerRepo.removePlayerFromGame(pid)).thenReturn(Optional.of(gid));
+
+        service.removePlayer(pid);
+
+        verify(events).publishEvent(new GameEvent.PlayerLeft(gid, pid));
+    }
+
+    @Test
+    void removePlayerThrowsWhenNothingWasDeleted()
+    {
+        UUID pid = UUID.randomUUID();
+        when(playerRepo.removePlayerFromGame(pid)).thenReturn(Optional.empty());
+
+        assertThrows(PlayerDoesNotExistException.class, () -> service.removePlayer(pid));
+        verify(playerRepo, never()).doesPlayerExist(any());
     }
 
     @Test
@@ -77,30 +141,444 @@ class GameServiceUnitTest
     {
         UUID gid = UUID.randomUUID();
         UUID pid = UUID.randomUUID();
-        when(gameRepo.doesGameExist(gid)).thenReturn(true);
         var deckCard = new DeckCardEntity(UUID.randomUUID(), UUID.randomUUID(), (short)1);
-        when(gameRepo.popCardsFromShoe(gid, 2)).thenReturn(List.of(deckCard));
+        when(gameRepo.dealCardsToPlayer(gid, pid, 2)).thenReturn(List.of(deckCard));
+        var def = new CardDefinition((short)1, Suit.SPADES, Rank.SEVEN);
+        when(cardRepo.getManyById(List.of((short)1))).thenReturn(List.of(def));
 
         service.dealCardsToPlayer(gid, pid, 2);
 
-        verify(playerRepo).addCardsToPlayerHand(pid, List.of(deckCard));
+        verify(gameRepo).dealCardsToPlayer(gid, pid, 2);
+        verify(gameRepo, never()).doesGameExist(any());
+        verify(gameRepo, never()).popCardsFromShoe(any(), anyInt());
+        verify(playerRepo, never()).addCardsToPlayerHand(any(), any());
+        verify(gameRepo).bumpVersion(gid);
+        verify(events).publishEvent(new GameEvent.CardsDealt(gid, pid, List.of(CardDto.fromDefinition(def))));
     }
 
     @Test
-    void getRemainingCardsBySuitCountsCorrectly() throws GameDoesNotExistException
+    void dealCardsToPlayerPublishesNothingWhenShoeIsEmpty() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID pid = UUID.randomUUID();
+        when(gameRepo.doesGameExist(gid)).thenReturn(true);
+        when(gameRepo.dealCardsToPlayer(gid, pid, 1)).thenReturn(List.of());
+
+        service.dealCardsToPlayer(gid, pid, 1);
+
+        verify(gameRepo, never()).bumpVersion(any());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void dealCardsToPlayerChecksTheGameOnlyWhenNothingWasDealt()
+    {
+        UUID gid = UUID.randomUUID();
+        UUID pid = UUID.randomUUID();
+        when(gameRepo.doesGameExist(gid)).thenReturn(false);
+        when(gameRepo.dealCardsToPlayer(gid, pid, 1)).thenReturn(List.of());
+
+        assertThrows(GameDoesNotExistException.class, () -> service.dealCardsToPlayer(gid, pid, 1));
+    }
+
+    @Test
+    void dealRoundDealsEveryPlayerInJoinOrder() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID p1 = UUID.randomUUID();
+        UUID p2 = UUID.randomUUID();
+        when(playerRepo.getAllPlayersInGame(gid)).thenReturn(List.of(
+                new PlayerEntity(p1, gid, UUID.randomUUID(), "Alice", null),
+                new PlayerEntity(p2, gid, UUID.randomUUID(), "Bob", null)));
+        when(gameRepo.dealRound(eq(gid), any())).thenReturn(Map.of());
+
+        service.dealRound(gid, 2);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<UUID, Integer>> counts = ArgumentCaptor.forClass(Map.class);
+        verify(gameRepo).dealRound(eq(gid), counts.capture());
+        assertThat(counts.getValue()).containsExactly(Map.entry(p1, 2), Map.entry(p2, 2));
+        verify(gameRepo, never()).dealCardsToPlayer(any(), any(), anyInt());
+    }
+
+    @Test
+    void dealRoundRejectsPlayersFromAnotherGame()
     {
         UUID gid = UUID.randomUUID();
         when(gameRepo.doesGameExist(gid)).thenReturn(true);
-        when(gameRepo.getShoeCards(gid)).thenReturn(List.of(
-                new CardDefinition((short)1, Suit.HEARTS, Rank.ACE),
-                new CardDefinition((short)2, Suit.HEARTS, Rank.KING)
-        ));
+        when(playerRepo.getAllPlayersInGame(gid)).thenReturn(List.of());
+
+        assertThrows(PlayerDoesNotExistException.class, () -> service.dealRound(gid, Map.of(UUID.randomUUID(), 1)));
+        assertThrows(CountMustBePositiveException.class, () -> service.dealRound(gid, Map.of(UUID.randomUUID(), 0)));
+    }
+
+    @Test
+    void dealRoundRejectsMissingAndOversizedCounts()
+    {
+        UUID gid = UUID.randomUUID();
+        Map<UUID, Integer> missing = new HashMap<>();
+        missing.put(UUID.randomUUID(), null);
+
+        assertThrows(CountMustBePositiveException.class, () -> service.dealRound(gid, missing));
+        assertThrows(CountTooLargeException.class,
+                () -> service.dealRound(gid, Map.of(UUID.randomUUID(), GameService.MAX_DEAL_COUNT + 1)));
+        assertThrows(CountTooLargeException.class, () -> service.dealRound(gid, GameService.MAX_DEAL_COUNT + 1));
+        verify(gameRepo, never()).dealRound(any(), any());
+    }
+
+    @Test
+    void addDeckToGamePushesWholeDeckAtOnce() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID did = UUID.randomUUID();
+        var c1 = new DeckCardEntity(UUID.randomUUID(), did, (short)1);
+        var c2 = new DeckCardEntity(UUID.randomUUID(), did, (short)2);
+        when(deckRepo.getCardsInDeck(did)).thenReturn(List.of(c1, c2));
+        when(gameRepo.pushbackCardsToShoe(gid, List.of(c1.id(), c2.id()))).thenReturn(Optional.of(List.of(c1.id(), c2.id())));
+
+        service.addDeckToGame(gid, did);
+
+        verify(gameRepo).pushbackCardsToShoe(gid, List.of(c1.id(), c2.id()));
+        verify(gameRepo, never()).pushbackCardToShoe(any(), any());
+        verify(gameRepo, never()).doesGameExist(any());
+        verify(deckRepo, never()).doesDeckExist(any());
+        verify(gameRepo).bumpVersion(gid);
+    }
+
+    @Test
+    void addDeckToGamePublishesOnlyTheCardsAppended() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID did = UUID.randomUUID();
+        var inShoe = new DeckCardEntity(UUID.randomUUID(), did, (short)1);
+        var added = new DeckCardEntity(UUID.randomUUID(), did, (short)2);
+        when(deckRepo.getCardsInDeck(did)).thenReturn(List.of(inShoe, added));
+        when(gameRepo.pushbackCardsToShoe(gid, List.of(inShoe.id(), added.id()))).thenReturn(Optional.of(List.of(added.id())));
+        var def = new CardDefinition((short)2, Suit.HEARTS, Rank.ACE);
+        when(cardRepo.getManyById(List.of((short)2))).thenReturn(List.of(def));
+
+        service.addDeckToGame(gid, did);
+
+        verify(events).publishEvent(new GameEvent.DeckAdded(gid, did, List.of(CardDto.fromDefinition(def))));
+
+        // Nothing appended, nothing changed
+        when(gameRepo.pushbackCardsToShoe(gid, List.of(inShoe.id(), added.id()))).thenReturn(Optional.of(List.of()));
+        service.addDeckToGame(gid, did);
+        verify(events, times(1)).publishEvent(any(GameEvent.class));
+        verify(gameRepo, times(1)).bumpVersion(gid);
+    }
+
+    @Test
+    void addDeckToGameTellsMissingGameDeckAndEmptyDeckApart() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID did = UUID.randomUUID();
+        var card = new DeckCardEntity(UUID.randomUUID(), did, (short)1);
+
+        when(deckRepo.getCardsInDeck(did)).thenReturn(List.of(card));
+        when(gameRepo.pushbackCardsToShoe(gid, List.of(card.id()))).thenReturn(Optional.empty());
+        assertThrows(GameDoesNotExistException.class, () -> service.addDeckToGame(gid, did));
+
+        when(deckRepo.getCardsInDeck(did)).thenReturn(List.of());
+        when(deckRepo.doesDeckExist(did)).thenReturn(false);
+        assertThrows(DeckDoesNotExistException.class, () -> service.addDeckToGame(gid, did));
+
+        when(deckRepo.doesDeckExist(did)).thenReturn(true);
+        assertThrows(EmptyDeckException.class, () -> service.addDeckToGame(gid, did));
+
+        verify(gameRepo, never()).bumpVersion(any());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void shuffleBumpsVersionOnlyForExistingGames() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.shuffleShoe(gid)).thenReturn(true);
+
+        service.shuffleShoeForGame(gid);
+        verify(gameRepo).bumpVersion(gid);
+
+        UUID missing = UUID.randomUUID();
+        assertThrows(GameDoesNotExistException.class, () -> service.shuffleShoeForGame(missing));
+        verify(gameRepo, never()).bumpVersion(missing);
+    }
+
+    @Test
+    void getGameVersionThrowsWhenGameIsMissing() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(7L));
+
+        assertThat(service.getGameVersion(gid)).isEqualTo(7L);
+        assertThrows(GameDoesNotExistException.class, () -> service.getGameVersion(UUID.randomUUID()));
+    }
+
+    @Test
+    void getGamesFetchesOneExtraRowToFindTheNextPage() throws CardsExceptionBase
+    {
+        var now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+        var g1 = new GameEntity(UUID.randomUUID(), now);
+        var g2 = new GameEntity(UUID.randomUUID(), now.minusSeconds(1));
+        var g3 = new GameEntity(UUID.randomUUID(), now.minusSeconds(2));
+        when(gameRepo.getPage(null, 3, true, false)).thenReturn(List.of(g1, g2, g3));
+        when(gameRepo.getPage(g2, 3, true, false)).thenReturn(List.of(g3));
+
+        GamePageDto first = service.getGames(null, 2, true, false);
+        assertThat(first.games()).extracting(GameDto::id).containsExactly(g1.id(), g2.id());
+        assertThat(first.nextCursor()).isNotNull();
+
+        GamePageDto last = service.getGames(first.nextCursor(), 2, true, false);
+        assertThat(last.games()).extracting(GameDto::id).containsExactly(g3.id());
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void getGamesRejectsBadLimitsAndCursors()
+    {
+        assertThrows(CountMustBePositiveException.class, () -> service.getGames(null, 0, false, false));
+        assertThrows(InvalidCursorException.class, () -> service.getGames("not a cursor", null, false, false));
+        assertThrows(InvalidCursorException.class, () -> service.getGames("AAAA", null, false, false));
+    }
+
+    @Test
+    void getGamesCapsThePageSize() throws CardsExceptionBase
+    {
+        service.getGames(null, 100_000, false, false);
+        service.getGames(null, null, false, false);
+
+        verify(gameRepo).getPage(null, GameService.MAX_PAGE_SIZE + 1, false, false);
+        verify(gameRepo).getPage(null, GameService.DEFAULT_PAGE_SIZE + 1, false, false);
+    }
+
+    @Test
+    void createDeckAddsAllCardsInBulk()
+    {
+        UUID did = UUID.randomUUID();
+        when(deckRepo.createDeck("Deck")).thenReturn(did);
+
+        UUID result = service.createDeck("Deck");
+
+        assertThat(result).isEqualTo(did);
+        verify(deckRepo).addAllCardsToDeck(did);
+        verify(deckRepo, never()).addCardToDeck(any(), anyShort());
+    }
+
+    @Test
+    void createDecksRejectsNonPositiveCount()
+    {
+        assertThrows(CountMustBePositiveException.class, () -> service.createDecks("Deck", 0));
+    }
+
+    @Test
+    void createDecksRejectsCountsAboveTheCap()
+    {
+        assertThrows(CountTooLargeException.class,
+                () -> service.createDecks("Deck", GameService.MAX_DECKS_PER_REQUEST + 1));
+        verify(deckRepo, never()).createFullDecks(any(), anyInt());
+    }
+
+    @Test
+    void getRemainingCardsBySuitCountsCorrectly() throws GameDoesNotExistException
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        var summary = new ShoeSummary();
+        summary.add(Suit.HEARTS, Rank.ACE, 1);
+        summary.add(Suit.HEARTS, Rank.KING, 1);
+        when(gameRepo.getShoeSummary(gid)).thenReturn(Optional.of(summary));
 
         var result = service.getRemainingCardsBySuit(gid);
 
         assertThat(result).hasSize(Suit.values().length);
         assertThat(result.stream().filter(r -> r.suit().equals("HEARTS"))
                 .findFirst().get().remaining()).isEqualTo(2);
+        verify(gameRepo, never()).getShoeCards(any());
+        verify(gameRepo, never()).doesGameExist(any());
+    }
+
+    @Test
+    void getRemainingCardsThrowsWhenSummaryIsMissing()
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        when(gameRepo.getShoeSummary(gid)).thenReturn(Optional.empty());
+
+        assertThrows(GameDoesNotExistException.class, () -> service.getRemainingCardsBySuit(gid));
+        assertThrows(GameDoesNotExistException.class, () -> service.getRemainingCardsBySuitAndRank(gid));
+    }
+
+    @Test
+    void getRemainingCardsBySuitAndRankListsEveryCardKingFirst() throws GameDoesNotExistException
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        var summary = new ShoeSummary();
+        summary.add(Suit.SPADES, Rank.QUEEN, 3);
+        when(gameRepo.getShoeSummary(gid)).thenReturn(Optional.of(summary));
+
+        var result = service.getRemainingCardsBySuitAndRank(gid);
+
+        assertThat(result).hasSize(52);
+        assertThat(result.getFirst()).isEqualTo(new CardCountDto(Suit.HEARTS.ordinal(), Rank.KING.ordinal(), 0));
+        assertThat(result.getLast()).isEqualTo(new CardCountDto(Suit.DIAMONDS.ordinal(), Rank.ACE.ordinal(), 0));
+        assertThat(result).contains(new CardCountDto(Suit.SPADES.ordinal(), Rank.QUEEN.ordinal(), 3));
+    }
+
+    @Test
+    void getPlayersInGameUsesSingleStandingsQuery() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        UUID pid = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        when(playerRepo.getStandingsForGame(gid, null)).thenReturn(List.of(
+                new PlayerStandingEntity(pid, "Alice", 21),
+                new PlayerStandingEntity(other, "Bob", 3)));
+
+        var result = service.getPlayersInGame(gid, 1);
+
+        assertThat(result).containsExactly(new PlayerDto(pid, "Alice", 21));
+        verify(playerRepo).getStandingsForGame(gid, null);
+        verify(playerRepo, never()).getHandForPlayer(any());
+        verify(gameRepo, never()).doesGameExist(any());
+    }
+
+    @Test
+    void readModelsAreCachedUntilAMutationThatChangesThem() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        UUID pid = UUID.randomUUID();
+        when(playerRepo.getStandingsForGame(gid, null)).thenReturn(List.of(new PlayerStandingEntity(pid, "Alice", 0)));
+        when(gameRepo.getShoeSummary(gid)).thenReturn(Optional.of(new ShoeSummary()));
+
+        service.getPlayersInGame(gid);
+        service.getPlayersInGame(gid, 1);
+        service.getRemainingCardsBySuit(gid);
+        service.getRemainingCardsBySuitAndRank(gid);
+        verify(playerRepo, times(1)).getStandingsForGame(gid, null);
+        verify(gameRepo, times(1)).getShoeSummary(gid);
+
+        // A shuffle changes neither, a deck only changes the shoe
+        readCache.onGameEvent(new GameEvent.ShoeShuffled(gid));
+        readCache.onGameEvent(new GameEvent.DeckAdded(gid, UUID.randomUUID(), List.of()));
+        service.getPlayersInGame(gid);
+        service.getRemainingCardsBySuit(gid);
+        verify(playerRepo, times(1)).getStandingsForGame(gid, null);
+        verify(gameRepo, times(2)).getShoeSummary(gid);
+
+        readCache.onGameEvent(new GameEvent.CardsDealt(gid, pid, List.of()));
+        service.getPlayersInGame(gid);
+        service.getRemainingCardsBySuit(gid);
+        verify(playerRepo, times(2)).getStandingsForGame(gid, null);
+        verify(gameRepo, times(3)).getShoeSummary(gid);
+    }
+
+    @Test
+    void entriesLoadedBeforeTheCurrentVersionAreLoadedAgain() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        when(playerRepo.getStandingsForGame(gid, null))
+                .thenReturn(List.of(new PlayerStandingEntity(alice, "Alice", 0)))
+                .thenReturn(List.of(new PlayerStandingEntity(alice, "Alice", 0), new PlayerStandingEntity(bob, "Bob", 0)));
+
+        assertThat(service.getPlayersInGame(gid)).hasSize(1);
+
+        // Bob joined and the version moved on, but the event that drops the entry has not arrived yet
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(2L));
+        assertThat(service.getPlayersInGame(gid)).hasSize(2);
+        assertThat(service.getPlayersInGame(gid, null, 1)).hasSize(2);
+        verify(playerRepo, times(2)).getStandingsForGame(gid, null);
+    }
+
+    @Test
+    void getHandsInGameChecksTheGameOnlyWhenNobodyIsPlaying() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID pid = UUID.randomUUID();
+        var def = new CardDefinition((short)1, Suit.SPADES, Rank.SEVEN);
+        when(playerRepo.getHandsForGame(gid)).thenReturn(List.of(new PlayerHandEntity(pid, "Alice", List.of(def))));
+
+        assertThat(service.getHandsInGame(gid)).containsExactly(Map.entry(pid, List.of(CardDto.fromDefinition(def))));
+        verify(gameRepo, never()).doesGameExist(any());
+        verify(playerRepo, never()).getHandForPlayer(any());
+
+        UUID missing = UUID.randomUUID();
+        when(playerRepo.getHandsForGame(missing)).thenReturn(List.of());
+        assertThrows(GameDoesNotExistException.class, () -> service.getHandsInGame(missing));
+    }
+
+    @Test
+    void getSnapshotSumsStandingsFromTheHands() throws CardsExceptionBase
+    {
+        UUID gid = UUID.randomUUID();
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        UUID carol = UUID.randomUUID();
+        var seven = new CardDefinition((short)1, Suit.SPADES, Rank.SEVEN);
+        var king = new CardDefinition((short)2, Suit.HEARTS, Rank.KING);
+        var summary = new ShoeSummary();
+        summary.add(Suit.CLUBS, Rank.ACE, 2);
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(4L));
+        when(gameRepo.getShoeSummary(gid)).thenReturn(Optional.of(summary));
+        when(playerRepo.getHandsForGame(gid)).thenReturn(List.of(
+                new PlayerHandEntity(alice, "Alice", List.of(seven)),
+                new PlayerHandEntity(bob, "Bob", List.of(king)),
+                new PlayerHandEntity(carol, "Carol", List.of(seven))));
+
+        GameSnapshotDto snapshot = service.getSnapshot(gid);
+
+        assertThat(snapshot.version()).isEqualTo(4L);
+        assertThat(snapshot.players()).containsExactly(
+                new PlayerDto(bob, "Bob", 13),
+                new PlayerDto(alice, "Alice", 7),
+                new PlayerDto(carol, "Carol", 7));
+        assertThat(snapshot.hands().keySet()).containsExactly(alice, bob, carol);
+        assertThat(snapshot.remainingBySuit()).contains(new SuitCountDto("CLUBS", 2));
+        assertThat(snapshot.remainingBySuitAndRank()).hasSize(52)
+                .contains(new CardCountDto(Suit.CLUBS.ordinal(), Rank.ACE.ordinal(), 2));
+        verify(playerRepo, never()).getStandingsForGame(any(), any());
+        verify(gameRepo, never()).doesGameExist(any());
+    }
+
+    @Test
+    void getSnapshotThrowsWhenGameIsMissing()
+    {
+        assertThrows(GameDoesNotExistException.class, () -> service.getSnapshot(UUID.randomUUID()));
+        verify(playerRepo, never()).getHandsForGame(any());
+    }
+
+    @Test
+    void missingGamesAreNotCached()
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        when(gameRepo.getShoeSummary(gid)).thenReturn(Optional.empty());
+
+        assertThrows(GameDoesNotExistException.class, () -> service.getRemainingCardsBySuit(gid));
+        assertThrows(GameDoesNotExistException.class, () -> service.getRemainingCardsBySuit(gid));
+        verify(gameRepo, times(2)).getShoeSummary(gid);
+    }
+
+    @Test
+    void getPlayersInGameThrowsWhenEmptyAndMissing()
+    {
+        UUID gid = UUID.randomUUID();
+        when(gameRepo.getVersion(gid)).thenReturn(Optional.of(1L));
+        when(playerRepo.getStandingsForGame(gid, null)).thenReturn(List.of());
+        when(gameRepo.doesGameExist(gid)).thenReturn(false);
+
+        assertThrows(GameDoesNotExistException.class, () -> service.getPlayersInGame(gid));
+    }
+
+    @Test
+    void getPlayersInGameRejectsNonPositiveLimit()
+    {
+        assertThrows(CountMustBePositiveException.class, () -> service.getPlayersInGame(UUID.randomUUID(), 0));
     }
 
     @Test
@@ -115,10 +593,12 @@ class GameServiceUnitTest
     void shuffleShoeForGameDelegates() throws GameDoesNotExistException
     {
         UUID gid = UUID.randomUUID();
-        when(gameRepo.doesGameExist(gid)).thenReturn(true);
+        when(gameRepo.shuffleShoe(gid)).thenReturn(true);
 
         service.shuffleShoeForGame(gid);
 
         verify(gameRepo).shuffleShoe(gid);
+        verify(events).publishEvent(new GameEvent.ShoeShuffled(gid));
+        verify(gameRepo, never()).doesGameExist(any());
     }
 }
@@ -0,0 +1,68 @@
+package com.deck.server.shuffle;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShuffleRandomSourceTest
+{
+    @Test
+    void everySourceShufflesIntoAPermutation()
+    {
+        List<Integer> cards = new ArrayList<>();
+        for (int i = 0; i < 416; i++)
+            cards.add(i);
+
+        for (ShuffleRandomSource source : List.of(
+                new GeneratorRandomSource("L64X128MixRandom"),
+                new GeneratorRandomSource("SplittableRandom"),
+                new SecureRandomSource(new SecureRandom()),
+                new PooledRandomSource(new SecureRandom(), 2, 64)))
+        {
+            List<Integer> shuffled = new ArrayList<>(cards);
+            source.shuffle(shuffled);
+            assertThat(shuffled).containsExactlyInAnyOrderElementsOf(cards).isNotEqualTo(cards);
+        }
+    }
+
+    @Test
+    void pooledSourceKeepsServingPastItsBuffers() throws Exception
+    {
+        try (PooledRandomSource source = new PooledRandomSource(new SecureRandom(), 4, 16))
+        {
+            // Far more words than the pool holds, from several threads, forces swaps and in-place refills
+            Set<Long> seen = ConcurrentHashMap.newKeySet();
+            ExecutorService threads = Executors.newFixedThreadPool(8);
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                done.add(threads.submit(() ->
+                {
+                    for (int i = 0; i < 10_000; i++)
+                        seen.add(source.nextLong());
+                }));
+            }
+            for (Future<?> f : done)
+                f.get();
+            threads.shutdown();
+
+            // 80 000 draws of 64 random bits should practically never collide
+            assertThat(seen).hasSizeGreaterThan(79_990);
+        }
+    }
+
+    @Test
+    void pooledSourceRejectsEmptyPools()
+    {
+        assertThatThrownBy(() -> new PooledRandomSource(new SecureRandom(), 0, 16))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -5,13 +5,31 @@ type PlayerDto = { playerId: string; playerName: string; totalValue: number }
 type CardDto = { suit: number; rank: number }
 type SuitCountDto = { suit: string; remaining: number }
 type CardCountDto = { suit: number; rank: number; count: number }
+type GameSnapshotDto = {
+  version: number
+  players: PlayerDto[]
+  hands: Record<string, CardDto[]>
+  remainingBySuit: SuitCountDto[]
+  remainingBySuitAndRank: CardCountDto[]
+}
+
+// Server-sent events from /games/{id}/events
+type DeckAdded = { gameId: string; deckId: string; cards: CardDto[] }
+type CardsDealt = { gameId: string; playerId: string; cards: CardDto[] }
+type PlayerJoined = { gameId: string; playerId: string; playerName: string }
+type PlayerLeft = { gameId: string; playerId: string }
 
 const SUITS = ['♥', '♠', '♣', '♦']
 const SUIT_NAMES = ['hearts', 'spades', 'clubs', 'diamonds']
 const RANKS = ['A', '2', '3', '4', '5', '6', '7', '8', '9', '10', 'J', 'Q', 'K']
 
+// A card is worth its rank, ace being 1
+const cardValue = (c: CardDto) => c.rank + 1
+
 export default function App() {
   const [games, setGames] = useState<GameDto[]>([])
+  // Cursor of the next page of games, from the X-Next-Cursor header; null on the last page
+  const [nextCursor, setNextCursor] = useState<string | null>(null)
   const [selectedGame, setSelectedGame] = useState<GameDto | null>(null)
   const [players, setPlayers] = useState<PlayerDto[]>([])
   const [cards, setCards] = useState<Record<string, CardDto[]>>({})
@@ -34,11 +52,32 @@ export default function App() {
     setTimeout(() => setErrorMsg(null), 5000)
   }
 
+  const fetchGamesPage = async (after: string | null) => {
+    const res = await api(after ? `/games?after=${encodeURIComponent(after)}` : '/games')
+    const data: GameDto[] = await res.json()
+    return { data, next: res.headers.get('X-Next-Cursor') }
+  }
+
   const refreshGames = async () => {
     setLoading(true)
     try {
-      const data: GameDto[] = await api('/games').then(r => r.json())
+      const { data, next } = await fetchGamesPage(null)
       setGames(data)
+      setNextCursor(next)
+    } finally {
+      setLoading(false)
+    }
+  }
+
+  const loadMoreGames = async () => {
+    if (!nextCursor || loading) return
+    setLoading(true)
+    try {
+      const { data, next } = await fetchGamesPage(nextCursor)
+      setGames(prev => [...prev, ...data])
+      setNextCursor(next)
+    } catch {
+      showError('Failed to load more games.')
     } finally {
       setLoading(false)
     }
@@ -68,7 +107,6 @@ export default function App() {
     if (!selectedGame) return
     try {
       await api(`/games/${selectedGame.id}/shuffle`, { method: 'POST' })
-      await fullRefresh()
     } catch {
       showError('Failed to shuffle shoe.')
     }
@@ -80,7 +118,6 @@ export default function App() {
     try {
       await api(`/games/${selectedGame.id}/join?playerName=${encoded}`, { method: 'POST' })
       setNewPlayerName('')
-      await fullRefresh()
     } catch {
       showError('Failed to add player.')
     }
@@ -89,7 +126,6 @@ export default function App() {
   const kickPlayer = async (playerId: string) => {
     try {
       await api(`/players/${playerId}/leave`, { method: 'DELETE' })
-      await fullRefresh()
     } catch {
       showError('Failed to kick player.')
     }
@@ -101,7 +137,6 @@ export default function App() {
     try {
       const deckId: string = await api('/games/new-deck', { method: 'POST' }).then(r => r.json())
       await api(`/games/${selectedGame.id}/decks/${deckId}`, { method: 'POST' })
-      await fullRefresh()
     } catch {
       showError('Failed to create or add deck.')
     } finally {
@@ -113,63 +148,97 @@ export default function App() {
     if (!selectedGame) return
     try {
       await api(`/games/${selectedGame.id}/players/${playerId}/deal?count=1`, { method: 'POST' })
-      await fullRefresh()
     } catch {
       showError('Failed to deal card.')
     }
   }
 
-  const loadPlayers = async () => {
+  // Players, hands and both remaining views in one request, all read at the same game version
+  const fullRefresh = async () => {
     if (!selectedGame) return
     try {
-      const data: PlayerDto[] = await api(`/games/${selectedGame.id}/players`).then(r => r.json())
-      setPlayers(data)
-      for (const p of data) await loadPlayerCards(p.playerId)
+      const snapshot: GameSnapshotDto = await api(`/games/${selectedGame.id}/snapshot`).then(r => r.json())
+      setPlayers(snapshot.players)
+      setCards(snapshot.hands)
+      setSuits(snapshot.remainingBySuit)
+      setSuitRanks(snapshot.remainingBySuitAndRank)
+      setIsConnectionLost(false)
     } catch {
-      showError('Failed to load players.')
+      // Only load failures show "Connection lost"
+      setIsConnectionLost(true)
     }
   }
 
-  const loadPlayerCards = async (playerId: string) => {
-    try {
-      const data: CardDto[] = await api(`/players/${playerId}/hand`).then(r => r.json())
-      setCards(prev => ({ ...prev, [playerId]: data }))
-    } catch {
-      showError('Failed to load hand.')
-    }
+  // Adds `delta` to the remaining counts of every given card
+  const applyShoeDelta = (changed: CardDto[], delta: number) => {
+    setSuits(prev =>
+      prev.map(s => {
+        const n = changed.filter(c => SUIT_NAMES[c.suit] === s.suit.toLowerCase()).length
+        return n === 0 ? s : { ...s, remaining: s.remaining + delta * n }
+      }),
+    )
+    setSuitRanks(prev =>
+      prev.map(sr => {
+        const n = changed.filter(c => c.suit === sr.suit && c.rank === sr.rank).length
+        return n === 0 ? sr : { ...sr, count: sr.count + delta * n }
+      }),
+    )
   }
 
-  const loadRemaining = async () => {
-    if (!selectedGame) return
-    try {
-      const [bySuit, bySuitRank] = await Promise.all([
-        api(`/games/${selectedGame.id}/remaining-by-suit`).then(r => r.json()),
-        api(`/games/${selectedGame.id}/remaining-by-suit-rank`).then(r => r.json()),
-      ])
-      setSuits(bySuit)
-      setSuitRanks(bySuitRank)
-    } catch {
-      // Only polling failures show "Connection lost"
-      setIsConnectionLost(true)
-    }
+  const onCardsDealt = (e: CardsDealt) => {
+    const gained = e.cards.reduce((sum, c) => sum + cardValue(c), 0)
+    setCards(prev => ({ ...prev, [e.playerId]: [...(prev[e.playerId] || []), ...e.cards] }))
+    setPlayers(prev =>
+      prev
+        .map(p => (p.playerId === e.playerId ? { ...p, totalValue: p.totalValue + gained } : p))
+        .sort((a, b) => b.totalValue - a.totalValue),
+    )
+    applyShoeDelta(e.cards, -1)
   }
 
-  const fullRefresh = async () => {
-    try {
-      await Promise.all([loadPlayers(), loadRemaining()])
-      setIsConnectionLost(false)
-    } catch {
-      setIsConnectionLost(true)
-    }
+  const onPlayerJoined = (e: PlayerJoined) => {
+    setPlayers(prev =>
+      prev.some(p => p.playerId === e.playerId)
+        ? prev
+        : [...prev, { playerId: e.playerId, playerName: e.playerName, totalValue: 0 }],
+    )
+    setCards(prev => ({ ...prev, [e.playerId]: [] }))
   }
 
+  const onPlayerLeft = (e: PlayerLeft) => {
+    setPlayers(prev => prev.filter(p => p.playerId !== e.playerId))
+    setCards(prev => {
+      const next = { ...prev }
+      delete next[e.playerId]
+      return next
+    })
+  }
+
+  // Load the game once, then follow its event stream. Every (re)connect reloads, so missed events never linger.
   useEffect(() => {
-    let interval: any
-    if (selectedGame) {
-      interval = setInterval(fullRefresh, 5000)
+    if (!selectedGame) return
+    const source = new EventSource(`/api/games/${selectedGame.id}/events`)
+    const on = <T,>(name: string, handler: (e: T) => void) =>
+      source.addEventListener(name, msg => handler(JSON.parse((msg as MessageEvent).data)))
+
+    source.onopen = () => {
+      setIsConnectionLost(false)
       fullRefresh()
     }
-    return () => clearInterval(interval)
+    source.onerror = () => setIsConnectionLost(true)
+
+    on<CardsDealt>('CardsDealt', onCardsDealt)
+    on<DeckAdded>('DeckAdded', e => applyShoeDelta(e.cards, 1))
+    on<PlayerJoined>('PlayerJoined', onPlayerJoined)
+    on<PlayerLeft>('PlayerLeft', onPlayerLeft)
+    on('GameDeleted', () => {
+      source.close()
+      setSelectedGame(null)
+      refreshGames()
+    })
+    // ShoeShuffled changes no counts or hands, nothing on screen depends on the shoe order
+
+    return () => source.close()
   }, [selectedGame])
 
   useEffect(() => {
@@ -247,6 +316,11 @@ export default function App() {
               </li>
             ))}
           </ul>
+          {nextCursor && (
+            <button onClick={loadMoreGames} disabled={loading}>
+              Load More
+            </button>
+          )}
         </>
       ) : (
         <>